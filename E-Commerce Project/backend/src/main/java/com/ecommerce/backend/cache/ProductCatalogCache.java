@@ -0,0 +1,187 @@
+package com.ecommerce.backend.cache;
+
+import com.ecommerce.backend.dto.PriceBucketCountDTO;
+import com.ecommerce.backend.dto.ProductDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// bounded read-through cache for catalog reads in ProductService
+// entries expire after a TTL and the least recently used ones are evicted once the size limit is hit
+// Time is cut into TTL-long periods and every entry expires at the end of the period it was stored in, so nothing
+// cached in one period is served in the next. The period is part of the catalog version (the ETag): writes on
+// other nodes never bump this node's generation, but a tag still stops matching once the data it was handed out
+// with may have been reloaded. The price is that the whole cache reloads at once at each period boundary.
+@Component
+public class ProductCatalogCache {
+
+    private final int maxProducts;
+    private final int maxCategories;
+    private final long ttlNanos;
+    private final long startNanos = System.nanoTime();
+
+    private final Map<Long, Entry<ProductDTO>> productsById;
+    private final Map<String, Entry<List<ProductDTO>>> productsByCategory;
+    private Entry<List<ProductDTO>> allProducts;
+    private Entry<List<PriceBucketCountDTO>> facetCounts;
+
+    // bumped on every write, a load that started before a write must not be stored
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ProductCatalogCache(@Value("${catalog.cache.max-products:10000}") int maxProducts,
+                               @Value("${catalog.cache.max-categories:256}") int maxCategories,
+                               @Value("${catalog.cache.ttl:5m}") Duration ttl) {
+        this.maxProducts = maxProducts;
+        this.maxCategories = maxCategories;
+        this.ttlNanos = ttl.toNanos();
+        this.productsById = lruMap(maxProducts);
+        this.productsByCategory = lruMap(maxCategories);
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    // TTL period we are in; with caching disabled (TTL 0) a new value every call, so no version ever matches
+    public long period() {
+        long now = System.nanoTime();
+        return ttlNanos > 0 ? (now - startNanos) / ttlNanos : now;
+    }
+
+    public synchronized ProductDTO getProduct(Long id) {
+        return read(productsById, id);
+    }
+
+    public synchronized void putProduct(Long id, ProductDTO product, long loadedAtGeneration) {
+        if (loadedAtGeneration == generation) {
+            productsById.put(id, new Entry<>(product, expiresAt()));
+        }
+    }
+
+    public synchronized List<ProductDTO> getCategory(String category) {
+        return read(productsByCategory, category);
+    }
+
+    public synchronized void putCategory(String category, List<ProductDTO> products, long loadedAtGeneration) {
+        if (loadedAtGeneration == generation) {
+            productsByCategory.put(category, new Entry<>(List.copyOf(products), expiresAt()));
+        }
+    }
+
+    public synchronized List<ProductDTO> getAllProducts() {
+        allProducts = readSingle(allProducts);
+        return allProducts != null ? allProducts.value : null;
+    }
+
+    public synchronized void putAllProducts(List<ProductDTO> products, long loadedAtGeneration) {
+        if (loadedAtGeneration == generation) {
+            allProducts = new Entry<>(List.copyOf(products), expiresAt());
+        }
+    }
+
+    public synchronized List<PriceBucketCountDTO> getFacetCounts() {
+        facetCounts = readSingle(facetCounts);
+        return facetCounts != null ? facetCounts.value : null;
+    }
+
+    public synchronized void putFacetCounts(List<PriceBucketCountDTO> counts, long loadedAtGeneration) {
+        if (loadedAtGeneration == generation) {
+            facetCounts = new Entry<>(List.copyOf(counts), expiresAt());
+        }
+    }
+
+    // drops everything a product write can affect: the product itself, the full listing, its categories and facet counts
+    public synchronized void invalidate(Long id, String... categories) {
+        generation++;
+        if (id != null) {
+            productsById.remove(id);
+        }
+        for (String category : categories) {
+            if (category != null) {
+                productsByCategory.remove(category);
+            }
+        }
+        allProducts = null;
+        facetCounts = null;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+        return Map.of(
+                "hits", hitCount,
+                "misses", missCount,
+                "evictions", evictions.get(),
+                "hitRatio", total == 0 ? 0.0 : (double) hitCount / total,
+                "products", productsById.size(),
+                "maxProducts", maxProducts,
+                "categories", productsByCategory.size(),
+                "maxCategories", maxCategories
+        );
+    }
+
+    // end of the current period
+    private long expiresAt() {
+        return ttlNanos > 0 ? startNanos + (period() + 1) * ttlNanos : System.nanoTime();
+    }
+
+    private <K, V> V read(Map<K, Entry<V>> map, K key) {
+        Entry<V> entry = map.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            map.remove(key);
+            evictions.incrementAndGet();
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.value;
+    }
+
+    // counts a hit or miss for a single-value entry, returns null in place of an expired entry
+    private <V> Entry<V> readSingle(Entry<V> entry) {
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            evictions.incrementAndGet();
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry;
+    }
+
+    private <K, V> Map<K, V> lruMap(int maxSize) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.ecommerce.backend.cache;
+
+import com.ecommerce.backend.entity.PromoCode;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// in-memory copy of the active promo codes, keyed by code and indexed by validUntil
+// reads are lock-free, writes come from PromoCodeService's refresh job and read-through misses
+@Component
+public class PromoCodeCache {
+
+    private final Map<String, PromoCode> codes = new ConcurrentHashMap<>();
+    private final NavigableMap<LocalDateTime, Set<String>> codesByValidUntil = new TreeMap<>();
+
+    // newest updatedAt seen so far, the next incremental refresh starts from here
+    private LocalDateTime highWaterMark;
+    private volatile Instant lastRefreshedAt;
+
+    public PromoCode get(String code) {
+        return codes.get(code);
+    }
+
+    public Set<String> codes() {
+        return Set.copyOf(codes.keySet());
+    }
+
+    public synchronized void put(PromoCode promoCode) {
+        PromoCode previous = codes.put(promoCode.getCode(), promoCode);
+        if (previous != null) {
+            unindex(previous);
+        }
+        codesByValidUntil.computeIfAbsent(promoCode.getValidUntil(), validUntil -> new HashSet<>())
+                .add(promoCode.getCode());
+    }
+
+    public synchronized void remove(String code) {
+        PromoCode previous = codes.remove(code);
+        if (previous != null) {
+            unindex(previous);
+        }
+    }
+
+    // drops every code whose window has closed, walking the validUntil index instead of all codes
+    public synchronized int removeExpired(LocalDateTime now) {
+        int removed = 0;
+        NavigableMap<LocalDateTime, Set<String>> expired = codesByValidUntil.headMap(now, true);
+        for (Set<String> expiredCodes : expired.values()) {
+            for (String code : expiredCodes) {
+                codes.remove(code);
+                removed++;
+            }
+        }
+        expired.clear();
+        return removed;
+    }
+
+    public synchronized LocalDateTime getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    public synchronized void markRefreshed(LocalDateTime newHighWaterMark) {
+        if (newHighWaterMark != null && (highWaterMark == null || newHighWaterMark.isAfter(highWaterMark))) {
+            highWaterMark = newHighWaterMark;
+        }
+        lastRefreshedAt = Instant.now();
+    }
+
+    public Map<String, Object> stats() {
+        Instant refreshedAt = lastRefreshedAt;
+        return Map.of(
+                "codes", codes.size(),
+                "lastRefreshedAt", refreshedAt != null ? refreshedAt.toString() : "never",
+                "stalenessMs", refreshedAt != null ? Duration.between(refreshedAt, Instant.now()).toMillis() : -1L
+        );
+    }
+
+    private void unindex(PromoCode promoCode) {
+        Set<String> sameExpiry = codesByValidUntil.get(promoCode.getValidUntil());
+        if (sameExpiry != null) {
+            sameExpiry.remove(promoCode.getCode());
+            if (sameExpiry.isEmpty()) {
+                codesByValidUntil.remove(promoCode.getValidUntil());
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.ecommerce.backend.config;
+
+import com.ecommerce.backend.index.CoPurchaseIndex;
+import com.ecommerce.backend.repository.OrderItemRepository;
+import com.ecommerce.backend.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Seeds the co-purchase index from order history in the background, new orders are added as they are created
+@Component
+public class CoPurchaseIndexLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(CoPurchaseIndexLoader.class);
+
+    private final CoPurchaseIndex coPurchaseIndex;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public CoPurchaseIndexLoader(CoPurchaseIndex coPurchaseIndex, OrderRepository orderRepository,
+                                 OrderItemRepository orderItemRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.coPurchaseIndex = coPurchaseIndex;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        // orders above this id are created after startup and reach the index through OrderService
+        long maxOrderId = orderRepository.findMaxId();
+        Thread loader = new Thread(() -> load(maxOrderId), "co-purchase-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void load(long maxOrderId) {
+        long start = System.nanoTime();
+        readOnlyTransaction.executeWithoutResult(tx -> {
+            try (Stream<Object[]> pairs = orderItemRepository.streamOrderProductPairs(maxOrderId)) {
+                Iterator<Object[]> iterator = pairs.iterator();
+                Long currentOrderId = null;
+                List<Long> productIds = new ArrayList<>();
+                while (iterator.hasNext()) {
+                    Object[] pair = iterator.next();
+                    Long orderId = (Long) pair[0];
+                    if (!orderId.equals(currentOrderId)) {
+                        coPurchaseIndex.recordOrder(productIds);
+                        productIds.clear();
+                        currentOrderId = orderId;
+                    }
+                    productIds.add((Long) pair[1]);
+                }
+                coPurchaseIndex.recordOrder(productIds);
+            }
+        });
+        log.info("Co-purchase index loaded for {} products in {} ms",
+                coPurchaseIndex.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,91 @@
+package com.ecommerce.backend.config;
+
+import com.ecommerce.backend.datasource.ReadWriteRoutingDataSource;
+import com.ecommerce.backend.datasource.ReadYourWritesWindow;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Primary pool from spring.datasource.*, plus a replica pool when app.datasource.replica.url is set.
+// The application DataSource is a lazy proxy so transactions that never run a statement (catalog cache hits)
+// borrow no connection, and with a replica it routes read-only service transactions there.
+@Configuration
+public class DataSourceConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(DataSourceConfig.class);
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty("app.datasource.replica.url")
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${app.datasource.replica.url}") String url,
+                                              @Value("${app.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${app.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesWindow readYourWritesWindow(
+            @Value("${app.datasource.read-your-writes-window:5s}") Duration window) {
+        return new ReadYourWritesWindow(window);
+    }
+
+    // hands writing clients the read-your-writes cookie and marks their reads for the primary
+    @Bean
+    @ConditionalOnProperty("app.datasource.replica.url")
+    public WebMvcConfigurer readYourWritesConfigurer(ReadYourWritesWindow readYourWritesWindow) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(readYourWritesWindow).addPathPatterns("/api/**");
+            }
+        };
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") ObjectProvider<HikariDataSource> replicaDataSource,
+                                 ReadYourWritesWindow readYourWritesWindow) {
+        HikariDataSource replica = replicaDataSource.getIfAvailable();
+        if (replica == null) {
+            return new LazyConnectionDataSourceProxy(primaryDataSource);
+        }
+        log.info("Read-only service transactions are routed to the replica {}", replica.getJdbcUrl());
+        return new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primaryDataSource, replica, readYourWritesWindow));
+    }
+}
@@ -0,0 +1,31 @@
+package com.ecommerce.backend.config;
+
+import com.ecommerce.backend.index.ExistenceFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+// The two existence filters: product ids (filled by ProductIdFilterLoader and ProductService) and active promo
+// codes (filled by PromoCodeService's cache refresh). Each stops rejecting keys once a few syncs in a row are late.
+@Configuration
+public class ExistenceFilterConfig {
+
+    private static final int MISSED_SYNCS = 3;
+
+    @Bean
+    public ExistenceFilter productIdFilter(@Value("${products.id-filter.false-positive-rate:0.01}") double rate,
+                                           @Value("${products.id-filter.poll-interval:5s}") Duration pollInterval,
+                                           MeterRegistry meterRegistry) {
+        return new ExistenceFilter("product-ids", rate, pollInterval.multipliedBy(MISSED_SYNCS), meterRegistry);
+    }
+
+    @Bean
+    public ExistenceFilter promoCodeFilter(@Value("${promo.code-filter.false-positive-rate:0.01}") double rate,
+                                           @Value("${promo.cache.refresh-interval:5s}") Duration refreshInterval,
+                                           MeterRegistry meterRegistry) {
+        return new ExistenceFilter("promo-codes", rate, refreshInterval.multipliedBy(MISSED_SYNCS), meterRegistry);
+    }
+}
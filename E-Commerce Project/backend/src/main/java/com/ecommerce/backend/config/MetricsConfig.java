@@ -0,0 +1,42 @@
+package com.ecommerce.backend.config;
+
+import com.ecommerce.backend.metrics.HibernateRequestMetrics;
+import com.ecommerce.backend.metrics.RequestQueryCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Wiring for the per-request Hibernate counters; HTTP, service and scheduler timers come from actuator
+// and the settings under "Metrics" in application.properties
+@Configuration
+public class MetricsConfig {
+
+    private final RequestQueryCounter requestQueryCounter = new RequestQueryCounter();
+
+    @Bean
+    public HibernatePropertiesCustomizer requestQueryCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, requestQueryCounter);
+    }
+
+    @Bean
+    public HibernateRequestMetrics hibernateRequestMetrics(MeterRegistry meterRegistry,
+                                                           EntityManagerFactory entityManagerFactory) {
+        return new HibernateRequestMetrics(meterRegistry, entityManagerFactory, requestQueryCounter);
+    }
+
+    @Bean
+    public WebMvcConfigurer hibernateRequestMetricsConfigurer(@Lazy HibernateRequestMetrics hibernateRequestMetrics) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(hibernateRequestMetrics).addPathPatterns("/api/**");
+            }
+        };
+    }
+}
@@ -0,0 +1,81 @@
+package com.ecommerce.backend.config;
+
+import com.ecommerce.backend.repository.OrderRepository;
+import com.ecommerce.backend.scheduling.ShardLeaseManager;
+import com.ecommerce.backend.scheduling.ShardsAcquiredEvent;
+import com.ecommerce.backend.service.OrderStatusTimer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+// Feeds the order status timer with orders it does not learn about through OrderService on this node:
+// every in-flight order of a shard when this node acquires it (in the background), and on a short interval the
+// recently placed orders of the held shards, which covers orders checked out on other nodes.
+@Component
+public class OrderStatusTimerLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStatusTimerLoader.class);
+
+    // re-reads this far back on every discovery run, for transactions that committed late and clock skew
+    private static final Duration DISCOVERY_OVERLAP = Duration.ofMinutes(1);
+
+    private final OrderStatusTimer orderStatusTimer;
+    private final OrderRepository orderRepository;
+    private final ShardLeaseManager shardLeases;
+    private final TransactionTemplate readOnlyTransaction;
+    private LocalDateTime lastDiscovery = LocalDateTime.now();
+
+    public OrderStatusTimerLoader(OrderStatusTimer orderStatusTimer, OrderRepository orderRepository,
+                                  ShardLeaseManager shardLeases, PlatformTransactionManager transactionManager) {
+        this.orderStatusTimer = orderStatusTimer;
+        this.orderRepository = orderRepository;
+        this.shardLeases = shardLeases;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener
+    public void onShardsAcquired(ShardsAcquiredEvent event) {
+        Thread loader = new Thread(() -> load(event.shards()), "order-status-timer-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @Scheduled(fixedDelayString = "${orders.status-timer.discovery-interval:5s}")
+    public void discoverRecentOrders() {
+        Set<Integer> shards = shardLeases.ownedShards();
+        LocalDateTime now = LocalDateTime.now();
+        if (!shards.isEmpty()) {
+            for (Object[] row : orderRepository.findInFlightStatusesSince(
+                    lastDiscovery.minus(DISCOVERY_OVERLAP), shardLeases.shardCount(), shards)) {
+                orderStatusTimer.track((Long) row[0], (String) row[1], (LocalDateTime) row[2]);
+            }
+        }
+        lastDiscovery = now;
+    }
+
+    private void load(Set<Integer> shards) {
+        long start = System.nanoTime();
+        AtomicInteger loaded = new AtomicInteger();
+        readOnlyTransaction.executeWithoutResult(tx -> {
+            try (Stream<Object[]> rows = orderRepository.streamInFlightStatuses(shardLeases.shardCount(), shards)) {
+                rows.forEach(row -> {
+                    orderStatusTimer.track((Long) row[0], (String) row[1], (LocalDateTime) row[2]);
+                    loaded.incrementAndGet();
+                });
+            }
+        });
+        log.info("Order status timer seeded with {} in-flight orders of shards {} in {} ms",
+                loaded.get(), shards, (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -2,6 +2,8 @@ package com.ecommerce.backend.config;
 
 import com.ecommerce.backend.entity.Product;
 import com.ecommerce.backend.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
@@ -10,6 +12,8 @@ import java.util.List;
 @Component
 public class ProductDataLoader implements CommandLineRunner {
 
+    private static final Logger log = LoggerFactory.getLogger(ProductDataLoader.class);
+
     private final ProductRepository productRepository;
 
     public ProductDataLoader(ProductRepository productRepository) {
@@ -68,7 +72,7 @@ public class ProductDataLoader implements CommandLineRunner {
             List<Product> products = List.of(product1, product2, product3, product4, product5);
 
             productRepository.saveAll(products);
-            System.out.println("✅ Inserted " + products.size() + " products into database.");
+            log.info("Inserted {} products into database.", products.size());
         }
     }
 }
\ No newline at end of file
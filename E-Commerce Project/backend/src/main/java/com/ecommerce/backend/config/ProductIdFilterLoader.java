@@ -0,0 +1,87 @@
+package com.ecommerce.backend.config;
+
+import com.ecommerce.backend.index.ExistenceFilter;
+import com.ecommerce.backend.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Keeps the product id filter in sync with the products table. A full rebuild in the background at startup and on
+// products.id-filter.rebuild-interval drops deleted ids and resizes the filter; in between, products created since
+// the last sync (on any node) are polled by created_at every products.id-filter.poll-interval. Products created
+// here also go in right away through ProductService. The filter stops rejecting ids when neither keeps it current.
+@Component
+public class ProductIdFilterLoader {
+
+    // ids are polled again for this long after the newest created_at seen, so rows whose transaction committed
+    // late (or whose node's clock lags a little) are not skipped
+    private static final long POLL_OVERLAP_SECONDS = 60;
+
+    private final ExistenceFilter productIdFilter;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    // newest created_at seen so far, the next poll starts from here; null until the first rebuild
+    private volatile LocalDateTime highWaterMark;
+
+    public ProductIdFilterLoader(@Qualifier("productIdFilter") ExistenceFilter productIdFilter,
+                                 ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+        this.productIdFilter = productIdFilter;
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        Thread loader = new Thread(this::rebuild, "product-id-filter-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @Scheduled(initialDelayString = "${products.id-filter.rebuild-interval:1m}",
+            fixedDelayString = "${products.id-filter.rebuild-interval:1m}")
+    public synchronized void rebuild() {
+        // every product created before now is read by the scan below, polls continue from here
+        LocalDateTime started = LocalDateTime.now();
+        readOnlyTransaction.executeWithoutResult(tx -> {
+            long count = productRepository.count();
+            productIdFilter.rebuild(count, filter -> {
+                try (Stream<Long> ids = productRepository.streamIds()) {
+                    ids.forEach(filter::add);
+                }
+            });
+        });
+        if (highWaterMark == null || started.isAfter(highWaterMark)) {
+            highWaterMark = started;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${products.id-filter.poll-interval:5s}")
+    public synchronized void pollNewIds() {
+        LocalDateTime since = highWaterMark;
+        if (since == null) {
+            return; // the first rebuild has not finished yet
+        }
+        long started = System.nanoTime();
+        List<Object[]> created = readOnlyTransaction.execute(
+                tx -> productRepository.findIdsCreatedSince(since.minusSeconds(POLL_OVERLAP_SECONDS)));
+        LocalDateTime newHighWaterMark = since;
+        for (Object[] row : created) {
+            productIdFilter.add((Long) row[0]);
+            LocalDateTime createdAt = (LocalDateTime) row[1];
+            if (createdAt.isAfter(newHighWaterMark)) {
+                newHighWaterMark = createdAt;
+            }
+        }
+        highWaterMark = newHighWaterMark;
+        productIdFilter.markSynced(started);
+    }
+}
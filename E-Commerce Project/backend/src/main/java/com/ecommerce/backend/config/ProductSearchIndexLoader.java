@@ -0,0 +1,53 @@
+package com.ecommerce.backend.config;
+
+import com.ecommerce.backend.index.ProductSearchIndex;
+import com.ecommerce.backend.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.Stream;
+
+// Builds the product search index from the catalog in the background, later writes go through ProductService
+@Component
+public class ProductSearchIndexLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndexLoader.class);
+
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ProductSearchIndexLoader(ProductSearchIndex productSearchIndex, ProductRepository productRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.productSearchIndex = productSearchIndex;
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        Thread loader = new Thread(this::load, "product-search-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void load() {
+        long start = System.nanoTime();
+        readOnlyTransaction.executeWithoutResult(tx -> {
+            try (Stream<Object[]> products = productRepository.streamSearchableFields()) {
+                // a product written while this runs may be indexed with the values read here; search results
+                // are resolved through the catalog, so at worst a result ranks on stale text for that one product
+                products.forEach(row -> productSearchIndex.index(
+                        (Long) row[0], (String) row[1], (String) row[2], (String) row[3]));
+            }
+        });
+        log.info("Product search index loaded {} products in {} ms",
+                productSearchIndex.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,51 @@
+package com.ecommerce.backend.controller;
+
+import com.ecommerce.backend.dto.SalesSummaryDTO;
+import com.ecommerce.backend.service.SalesAnalyticsService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:5174"})
+public class AnalyticsController {
+
+    private final SalesAnalyticsService salesAnalyticsService;
+
+    public AnalyticsController(SalesAnalyticsService salesAnalyticsService) {
+        this.salesAnalyticsService = salesAnalyticsService;
+    }
+
+    // GET /api/analytics/daily?from=2025-01-01&to=2025-01-31
+    @GetMapping("/daily")
+    public ResponseEntity<List<SalesSummaryDTO>> getDailySales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(salesAnalyticsService.getDailySales(from, to));
+    }
+
+    @GetMapping("/categories")
+    public ResponseEntity<List<SalesSummaryDTO>> getCategorySales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(salesAnalyticsService.getCategorySales(from, to));
+    }
+
+    @GetMapping("/promo-codes")
+    public ResponseEntity<List<SalesSummaryDTO>> getPromoCodeSales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(salesAnalyticsService.getPromoCodeSales(from, to));
+    }
+
+    // recomputes the rollups from the orders table (backfill or repair)
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Void> rebuildRollups() {
+        salesAnalyticsService.rebuildRollups();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,13 +1,24 @@
 package com.ecommerce.backend.controller;
 
+import com.ecommerce.backend.dto.CursorPageDTO;
 import com.ecommerce.backend.dto.OrderDTO;
+import com.ecommerce.backend.service.OrderExportService;
+import com.ecommerce.backend.service.OrderIngestionService;
 import com.ecommerce.backend.service.OrderService;
+import com.ecommerce.backend.service.OrderStatusTimer;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -15,15 +26,27 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderIngestionService orderIngestionService;
+    private final OrderExportService orderExportService;
+    private final OrderStatusTimer orderStatusTimer;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderIngestionService orderIngestionService,
+                           OrderExportService orderExportService, OrderStatusTimer orderStatusTimer) {
         this.orderService = orderService;
+        this.orderIngestionService = orderIngestionService;
+        this.orderExportService = orderExportService;
+        this.orderStatusTimer = orderStatusTimer;
     }
 
     @PostMapping
-    public ResponseEntity<OrderDTO> createOrder(@Valid @RequestBody OrderDTO orderDTO) {
+    public CompletableFuture<ResponseEntity<OrderDTO>> createOrder(@Valid @RequestBody OrderDTO orderDTO) {
+        if (orderIngestionService.isEnabled()) {
+            // group-commit mode: the response is sent once the order's batch is committed
+            return orderIngestionService.submit(orderDTO)
+                    .thenApply(createdOrder -> new ResponseEntity<>(createdOrder, HttpStatus.CREATED));
+        }
         OrderDTO createdOrder = orderService.createOrder(orderDTO);
-        return new ResponseEntity<>(createdOrder, HttpStatus.CREATED);
+        return CompletableFuture.completedFuture(new ResponseEntity<>(createdOrder, HttpStatus.CREATED));
     }
 
     @GetMapping("/{id}")
@@ -38,7 +61,35 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    // GET /api/orders?after={lastId}&limit={n}
+    @GetMapping(params = "limit")
+    public ResponseEntity<CursorPageDTO<OrderDTO>> getOrdersPage(@RequestParam(required = false) Long after,
+                                                                 @RequestParam int limit) {
+        CursorPageDTO<OrderDTO> page = orderService.getOrdersPage(after, limit);
+        return ResponseEntity.ok(page);
+    }
 
+    // GET /api/orders/export?format=ndjson|csv&status=PENDING&from=2025-01-01T00:00:00&to=2025-02-01T00:00:00
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if ("csv".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders.csv\"")
+                    .body(out -> orderExportService.exportCsv(status, from, to, out));
+        }
+        if ("ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders.ndjson\"")
+                    .body(out -> orderExportService.exportNdjson(status, from, to, out));
+        }
+        return ResponseEntity.badRequest().build();
+    }
 
     @GetMapping("/status/{status}")
     public ResponseEntity<List<OrderDTO>> getOrdersByStatus(@PathVariable String status) {
@@ -58,6 +109,13 @@ public class OrderController {
         return ResponseEntity.ok(cancelledOrder);
     }
 
+    // reports how many orders have a pending status transition and when the next one fires
+    // GET http://localhost:8080/api/orders/status-timer/stats
+    @GetMapping("/status-timer/stats")
+    public ResponseEntity<Map<String, Object>> getStatusTimerStats() {
+        return ResponseEntity.ok(orderStatusTimer.getStats());
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteOrder(@PathVariable Long id) {
         orderService.deleteOrder(id);
@@ -1,24 +1,52 @@
 package com.ecommerce.backend.controller;
 
+import com.ecommerce.backend.dto.CursorPageDTO;
+import com.ecommerce.backend.dto.ProductBrowseDTO;
 import com.ecommerce.backend.dto.ProductDTO;
+import com.ecommerce.backend.dto.ProductImportResultDTO;
+import com.ecommerce.backend.metrics.SecondLevelCacheStats;
+import com.ecommerce.backend.service.ProductImportService;
 import com.ecommerce.backend.service.ProductService;
+import com.ecommerce.backend.service.StockService;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.InputStream;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController // marks this class as a REST controller, combining @Controller and @ResponseBody
 @RequestMapping("/api/products") // base path for all endpoints in this controller
 @CrossOrigin(origins = {"http://localhost:5173", "http://localhost:5174"})
 public class ProductController {
 
+    // browsers and the CDN may keep catalog responses but must revalidate them with If-None-Match
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
+
     private final ProductService productService;
+    private final StockService stockService;
+    private final ProductImportService productImportService;
+    private final SecondLevelCacheStats secondLevelCacheStats;
+    private final ContentNegotiationManager contentNegotiationManager;
 
-    // constructor injection of ProductService
-    public ProductController(ProductService productService) {
+    // constructor injection of the product, stock and import services
+    public ProductController(ProductService productService, StockService stockService,
+                             ProductImportService productImportService, SecondLevelCacheStats secondLevelCacheStats,
+                             ContentNegotiationManager contentNegotiationManager) {
         this.productService = productService;
+        this.stockService = stockService;
+        this.productImportService = productImportService;
+        this.secondLevelCacheStats = secondLevelCacheStats;
+        this.contentNegotiationManager = contentNegotiationManager;
     }
 
     // creates a new product
@@ -29,28 +57,121 @@ public class ProductController {
         return new ResponseEntity<>(createdProduct, HttpStatus.CREATED); // returns 201 created status
     }
 
+    // bulk import from a JSON array of products, streamed and written in batches
+    // POST http://localhost:8080/api/products/import (Content-Type: application/json)
+    // rows that fail validation or saving are listed in the result, the others are imported
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ProductImportResultDTO> importProductsJson(InputStream body) {
+        return ResponseEntity.ok(productImportService.importJson(body)); // returns 200 OK status
+    }
+
+    // bulk import from CSV with a header row: title,description,price,category[,image,rating_rate,rating_count,stock]
+    // POST http://localhost:8080/api/products/import (Content-Type: text/csv)
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ProductImportResultDTO> importProductsCsv(InputStream body) {
+        return ResponseEntity.ok(productImportService.importCsv(body)); // returns 200 OK status
+    }
+
     // retrieves a single product by ID
     // GET http://localhost:8080/api/products/{id}
     @GetMapping("/{id}") // handles HTTP GET requests for a specific ID
-    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id, ServletWebRequest request) {
+        if (notModified(request)) {
+            return null; // 304 Not Modified already written, no DB access or body
+        }
         ProductDTO productDTO = productService.getProductById(id);
-        return ResponseEntity.ok(productDTO); // returns 200 OK status
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(productDTO); // returns 200 OK status
     }
 
     // retrieves all products
     // GET http://localhost:8080/api/products
     @GetMapping // handles HTTP GET requests
-    public ResponseEntity<List<ProductDTO>> getAllProducts() {
+    public ResponseEntity<List<ProductDTO>> getAllProducts(ServletWebRequest request) {
+        if (notModified(request)) {
+            return null; // 304 Not Modified already written, no DB access or body
+        }
         List<ProductDTO> products = productService.getAllProducts();
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(products); // returns 200 OK status
+    }
+
+    // retrieves one page of products using keyset pagination
+    // GET http://localhost:8080/api/products?after={lastId}&limit={n}
+    @GetMapping(params = "limit") // only matched when ?limit= is present, plain GET keeps returning the full list
+    public ResponseEntity<CursorPageDTO<ProductDTO>> getProductsPage(@RequestParam(required = false) Long after,
+                                                                     @RequestParam int limit) {
+        CursorPageDTO<ProductDTO> page = productService.getProductsPage(after, limit);
+        return ResponseEntity.ok(page); // returns 200 OK status
+    }
+
+    // retrieves all products with only the requested fields, e.g. ?fields=title,price,image,rating for the grid view
+    // GET http://localhost:8080/api/products?fields={comma separated names}
+    // send Accept: application/cbor for a binary encoding of the same structure
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllProductFields(@RequestParam String fields,
+                                                                         ServletWebRequest request) {
+        if (notModified(request)) {
+            return null; // 304 Not Modified already written, no DB access or body
+        }
+        List<Map<String, Object>> products = productService.getProductFields(fields, null);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(products); // returns 200 OK status
+    }
+
+    // keyset paged listing with only the requested fields
+    // GET http://localhost:8080/api/products?fields={names}&after={lastId}&limit={n}
+    @GetMapping(params = {"fields", "limit"})
+    public ResponseEntity<CursorPageDTO<Map<String, Object>>> getProductFieldsPage(@RequestParam String fields,
+                                                                                  @RequestParam(required = false) Long after,
+                                                                                  @RequestParam int limit) {
+        CursorPageDTO<Map<String, Object>> page = productService.getProductFieldsPage(fields, after, limit);
+        return ResponseEntity.ok(page); // returns 200 OK status
+    }
+
+    // filters products by category, price range and minimum rating, with facet counts for the filter panel
+    // GET http://localhost:8080/api/products/browse?category=&minPrice=&maxPrice=&minRating=&sort=price_asc|price_desc|rating|popular&page=0&size=20
+    @GetMapping("/browse")
+    public ResponseEntity<ProductBrowseDTO> browseProducts(@RequestParam(required = false) String category,
+                                                           @RequestParam(required = false) Double minPrice,
+                                                           @RequestParam(required = false) Double maxPrice,
+                                                           @RequestParam(required = false) Double minRating,
+                                                           @RequestParam(required = false) String sort,
+                                                           @RequestParam(defaultValue = "0") int page,
+                                                           @RequestParam(defaultValue = "20") int size) {
+        ProductBrowseDTO result = productService.browseProducts(category, minPrice, maxPrice, minRating, sort, page, size);
+        return ResponseEntity.ok(result); // returns 200 OK status
+    }
+
+    // searches products by title, category and description (prefix and typo tolerant)
+    // GET http://localhost:8080/api/products/search?q={text}&limit={n}
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductDTO>> searchProducts(@RequestParam String q,
+                                                           @RequestParam(defaultValue = "10") int limit) {
+        List<ProductDTO> products = productService.searchProducts(q, limit);
         return ResponseEntity.ok(products); // returns 200 OK status
     }
 
     // retrieves products by category
     // GET http://localhost:8080/api/products/category/{categoryName}
     @GetMapping("/category/{category}") // handles HTTP GET requests to filter by category
-    public ResponseEntity<List<ProductDTO>> getProductsByCategory(@PathVariable String category) {
+    public ResponseEntity<List<ProductDTO>> getProductsByCategory(@PathVariable String category,
+                                                                  ServletWebRequest request) {
+        if (notModified(request)) {
+            return null; // 304 Not Modified already written, no DB access or body
+        }
         List<ProductDTO> products = productService.getProductsByCategory(category);
-        return ResponseEntity.ok(products); // returns 200 OK status
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(products); // returns 200 OK status
+    }
+
+    // retrieves products by category with only the requested fields
+    // GET http://localhost:8080/api/products/category/{categoryName}?fields={names}
+    @GetMapping(value = "/category/{category}", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getProductFieldsByCategory(@PathVariable String category,
+                                                                               @RequestParam String fields,
+                                                                               ServletWebRequest request) {
+        if (notModified(request)) {
+            return null; // 304 Not Modified already written, no DB access or body
+        }
+        List<Map<String, Object>> products = productService.getProductFields(fields, category);
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(products); // returns 200 OK status
     }
 
     // updates an existing product
@@ -69,6 +190,81 @@ public class ProductController {
         return ResponseEntity.ok(relatedProducts);
     }
 
+    // live units available for checkout, null when the product does not track stock
+    // GET http://localhost:8080/api/products/{id}/stock
+    @GetMapping("/{id}/stock")
+    public ResponseEntity<Map<String, Object>> getStock(@PathVariable Long id) {
+        return ResponseEntity.ok(stockResponse(id, stockService.getAvailable(id)));
+    }
+
+    // restocks (positive adjustment) or writes off (negative adjustment) units of a product
+    // POST http://localhost:8080/api/products/{id}/stock?adjustment={units}
+    @PostMapping("/{id}/stock")
+    public ResponseEntity<Map<String, Object>> adjustStock(@PathVariable Long id, @RequestParam int adjustment) {
+        return ResponseEntity.ok(stockResponse(id, stockService.adjustStock(id, adjustment)));
+    }
+
+    // reports reservation and reconcile counters
+    // GET http://localhost:8080/api/products/stock/stats
+    @GetMapping("/stock/stats")
+    public ResponseEntity<Map<String, Object>> getStockStats() {
+        return ResponseEntity.ok(stockService.getStats());
+    }
+
+    // reports catalog cache hit/miss/eviction counters
+    // GET http://localhost:8080/api/products/cache/stats
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCatalogCacheStats() {
+        return ResponseEntity.ok(productService.getCatalogCacheStats());
+    }
+
+    // reports Hibernate second-level and query cache hit/miss counters per region (products, promo codes)
+    // GET http://localhost:8080/api/products/cache/regions
+    @GetMapping("/cache/regions")
+    public ResponseEntity<Map<String, Object>> getSecondLevelCacheStats() {
+        return ResponseEntity.ok(secondLevelCacheStats.getStats());
+    }
+
+    private Map<String, Object> stockResponse(Long productId, Integer available) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("productId", productId);
+        response.put("available", available); // Map.of does not allow the null of untracked products
+        return response;
+    }
+
+    // Answers If-None-Match for a catalog response, true when a 304 was written. JSON and CBOR share the URL, so
+    // the tag names the representation and Vary: Accept (on the 304 as well) keeps shared caches such as the
+    // CDN from serving one to a client that asked for the other.
+    private boolean notModified(ServletWebRequest request) {
+        request.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        return request.checkNotModified(catalogETag(request));
+    }
+
+    // strong ETag for catalog responses, the quotes are part of the tag
+    private String catalogETag(ServletWebRequest request) {
+        return "\"" + productService.getCatalogVersion() + "-" + representation(request) + "\"";
+    }
+
+    // the encoding the message converters pick for this request: the first accepted type JSON or CBOR matches,
+    // JSON for wildcards since its converter comes first
+    private String representation(ServletWebRequest request) {
+        List<MediaType> acceptedTypes;
+        try {
+            acceptedTypes = contentNegotiationManager.resolveMediaTypes(request);
+        } catch (HttpMediaTypeNotAcceptableException e) {
+            return "json"; // unparseable Accept header, the converters answer it with a 406 anyway
+        }
+        for (MediaType accepted : acceptedTypes) {
+            if (accepted.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return "json";
+            }
+            if (accepted.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                return "cbor";
+            }
+        }
+        return "json";
+    }
+
     // deletes a product
     // DELETE http://localhost:8080/api/products/{id}
     @DeleteMapping("/{id}") // handles HTTP DELETE requests for a specific ID
@@ -36,4 +36,9 @@ public class PromoCodeController {
             ));
         }
     }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(promoCodeService.getCacheStats());
+    }
 }
\ No newline at end of file
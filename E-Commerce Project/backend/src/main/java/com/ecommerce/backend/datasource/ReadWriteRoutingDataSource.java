@@ -0,0 +1,46 @@
+package com.ecommerce.backend.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// Sends read-only transactions opened by the application's services (@Transactional(readOnly = true) on a
+// ProductService or OrderService method) to the replica pool and everything else to the primary.
+// Spring Data's own read-only defaults on repository methods are not enough: a findById before a save in a
+// write path must not read a lagging replica. Requests of a client that wrote within the read-your-writes
+// window stay on the primary as well. Needs a LazyConnectionDataSourceProxy in front, so the connection is
+// picked once the transaction's read-only flag and name are known.
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route { PRIMARY, REPLICA }
+
+    private static final String SERVICE_PACKAGE = "com.ecommerce.backend.service.";
+
+    private final ReadYourWritesWindow readYourWrites;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReadYourWritesWindow readYourWrites) {
+        this.readYourWrites = readYourWrites;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentRoute();
+    }
+
+    Route currentRoute() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.PRIMARY;
+        }
+        // transaction names are the qualified method name, e.g. com.ecommerce.backend.service.ProductService.getAllProducts
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        if (name == null || !name.startsWith(SERVICE_PACKAGE)) {
+            return Route.PRIMARY;
+        }
+        return readYourWrites.isOpenForCurrentRequest() ? Route.PRIMARY : Route.REPLICA;
+    }
+}
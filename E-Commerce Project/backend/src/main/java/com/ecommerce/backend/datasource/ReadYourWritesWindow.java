@@ -0,0 +1,81 @@
+package com.ecommerce.backend.datasource;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.Set;
+
+// Read-your-writes per client. A write request (POST, PUT, PATCH or DELETE) hands the client a cookie holding the
+// time its window ends; while the client's requests carry a cookie that has not run out, their read-only service
+// transactions stay on the primary, so it reads back what it just wrote whichever instance serves the read.
+// Other clients keep reading from the replica. The cookie carries wall-clock time, so the instances' clocks must
+// agree to well within the window (NTP keeps them far closer).
+public class ReadYourWritesWindow implements HandlerInterceptor {
+
+    static final String COOKIE = "read-your-writes-until";
+
+    private static final String OPEN_ATTRIBUTE = ReadYourWritesWindow.class.getName() + ".open";
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final Duration window;
+
+    public ReadYourWritesWindow(Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        boolean write = !READ_METHODS.contains(request.getMethod());
+        if (write) {
+            recordWrite(response);
+        }
+        if (write || isOpen(request)) {
+            request.setAttribute(OPEN_ATTRIBUTE, Boolean.TRUE);
+        }
+        return true;
+    }
+
+    // starts the client's window; set before the handler runs, as the response is committed by the time it returns
+    void recordWrite(HttpServletResponse response) {
+        long until = System.currentTimeMillis() + window.toMillis();
+        ResponseCookie cookie = ResponseCookie.from(COOKIE, Long.toString(until))
+                .path("/")
+                .maxAge(window.plusSeconds(1)) // whole seconds, the value decides when the window ends
+                .httpOnly(true)
+                .sameSite("Lax")
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+
+    boolean isOpen(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    // whether the request running on this thread belongs to a client inside its window; false off request threads
+    // (schedulers, loaders), which have no client to read its own writes
+    public boolean isOpenForCurrentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null
+                && attributes.getAttribute(OPEN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+}
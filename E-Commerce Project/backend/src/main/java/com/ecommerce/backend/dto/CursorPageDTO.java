@@ -0,0 +1,17 @@
+package com.ecommerce.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> items;
+
+    // id to pass as ?after= for the next page, null when this is the last page
+    private Long nextCursor;
+}
@@ -0,0 +1,13 @@
+package com.ecommerce.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRowErrorDTO {
+    private long row; // 1-based position of the row in the array or CSV body, header not counted
+    private String message;
+}
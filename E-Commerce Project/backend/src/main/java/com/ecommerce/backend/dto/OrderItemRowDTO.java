@@ -0,0 +1,34 @@
+package com.ecommerce.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// one row of the order read query: order columns repeated for each of its items
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemRowDTO {
+    private Long orderId;
+    private String addressLine1;
+    private String state;
+    private String pincode;
+    private Double originalPrice;
+    private String promoCode;
+    private Double discountAmount;
+    private Double finalPrice;
+    private String status;
+    private LocalDateTime orderDate;
+    private LocalDateTime deliveryDate;
+
+    // item columns are null for an order without items
+    private Long itemId;
+    private Long productId;
+    private String productTitle;
+    private String productImage;
+    private Integer quantity;
+    private Double price;
+    private Double totalPrice;
+}
@@ -0,0 +1,15 @@
+package com.ecommerce.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// number of products of one category in one price bucket, the raw data behind facet counts
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceBucketCountDTO {
+    private String category;
+    private Integer bucket; // index into ProductService.PRICE_BUCKET_BOUNDS
+    private Long count;
+}
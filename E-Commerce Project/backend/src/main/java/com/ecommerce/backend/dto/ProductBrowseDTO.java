@@ -0,0 +1,23 @@
+package com.ecommerce.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBrowseDTO {
+    private List<ProductDTO> items;
+    private int page;
+    private boolean hasNext;
+
+    // products per category over the whole catalog, so other categories stay selectable
+    private Map<String, Long> categoryCounts;
+
+    // products per price bucket (e.g. "1000-5000"), within the selected category if any
+    private Map<String, Long> priceBucketCounts;
+}
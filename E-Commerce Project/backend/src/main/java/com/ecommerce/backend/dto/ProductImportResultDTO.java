@@ -0,0 +1,25 @@
+package com.ecommerce.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResultDTO {
+    private long rowsRead;
+    private long imported;
+    private long failed;
+
+    // first errors only, failed has the full count
+    private List<ImportRowErrorDTO> errors;
+
+    // set when the body itself could not be parsed any further; rows before it are imported
+    private String abortedReason;
+
+    private long elapsedMs;
+    private double rowsPerSecond;
+}
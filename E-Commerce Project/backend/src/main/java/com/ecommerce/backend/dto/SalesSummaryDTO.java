@@ -0,0 +1,16 @@
+package com.ecommerce.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesSummaryDTO {
+    private String key; // day, category or promo code, depending on the report
+    private Double revenue;
+    private Double discount;
+    private Long units;
+    private Long orders;
+}
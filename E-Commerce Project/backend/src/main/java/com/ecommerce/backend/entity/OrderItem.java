@@ -14,7 +14,7 @@ public class OrderItem {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
-    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_item_sequence", allocationSize = 1)
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_item_sequence", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -4,17 +4,29 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.time.LocalDateTime;
 
 @Entity // this annotation marks this class as a JPA entity, mapping it to a database table
-@Table(name = "products") // specifies the actual table name in the database
+@Table(name = "products", indexes = { // specifies the actual table name in the database
+        // composite indexes for filtered browsing: category plus a price range or rating threshold
+        @Index(name = "idx_products_category_price", columnList = "category, price"),
+        @Index(name = "idx_products_category_rating", columnList = "category, rating_rate"),
+        // ProductIdFilterLoader polls new products by creation time
+        @Index(name = "idx_products_created_at", columnList = "created_at")
+})
 @Data // lombok: automatically generates getters, setters, toString, equals, and hashCode methods
 @NoArgsConstructor // lombok: generates a constructor with no arguments
 @AllArgsConstructor // lombok: generates a constructor with all arguments
+@Cacheable // kept in the "products" second-level cache region, see hibernate-cache.conf
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "products")
 public class Product {
 
     @Id // marks the field as the primary key of the entity
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
-    @SequenceGenerator(name = "product_seq", sequenceName = "product_sequence", allocationSize = 1)
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_sequence", allocationSize = 50)
     private Long id; // unique identifier for the product
 
     @Column(nullable = false, length = 500) // product title
@@ -38,6 +50,23 @@ public class Product {
     @Column(name = "rating_count")
     private Integer ratingCount;
 
+    // units not yet claimed by an instance (on hand is this plus the blocks instances hold, see StockService),
+    // null means stock is not tracked for this product
+    // only StockService writes it (conditional UPDATEs), so entity saves never overwrite a newer value
+    // those UPDATEs bypass the second-level cache, so the cached copy of this field is stale; read it with
+    // ProductRepository.findStockById or StockService, never from the entity
+    @Column(updatable = false)
+    private Integer stock;
+
+    // lets the product id filter pick up products created on other nodes incrementally
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    void touchCreatedAt() {
+        createdAt = LocalDateTime.now();
+    }
+
     // Backward compatibility - keep name field for existing code
     public String getName() {
         return this.title;
@@ -4,19 +4,24 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "promo_codes")
+// the cache refresh polls changed rows by updated_at every few seconds
+@Table(name = "promo_codes", indexes = @Index(name = "idx_promo_codes_updated_at", columnList = "updated_at"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "promo-codes")
 public class PromoCode {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "promo_code_seq")
-    @SequenceGenerator(name = "promo_code_seq", sequenceName = "promo_code_sequence", allocationSize = 1)
+    @SequenceGenerator(name = "promo_code_seq", sequenceName = "promo_code_sequence", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -33,4 +38,14 @@ public class PromoCode {
 
     @Column(nullable = false)
     private Boolean isActive = true;
+
+    // lets the promo code cache pick up changed rows incrementally
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void touchUpdatedAt() {
+        updatedAt = LocalDateTime.now();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.ecommerce.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// pre-aggregated sales per day, category and promo code, kept up to date as orders change
+@Entity
+@Table(name = "sales_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_sales_rollups_key", columnNames = {"sales_date", "category", "promo_code"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_rollup_seq")
+    @SequenceGenerator(name = "sales_rollup_seq", sequenceName = "sales_rollup_sequence", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(nullable = false)
+    private String category;
+
+    // empty string for orders without a promo code, so the unique key also covers them
+    @Column(name = "promo_code", nullable = false)
+    private String promoCode;
+
+    @Column(nullable = false)
+    private Double revenue; // item totals after the order discount
+
+    @Column(nullable = false)
+    private Double discount;
+
+    @Column(nullable = false)
+    private Long units;
+
+    @Column(nullable = false)
+    private Long orderCount;
+}
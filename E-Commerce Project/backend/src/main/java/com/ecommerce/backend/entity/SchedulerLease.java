@@ -0,0 +1,27 @@
+package com.ecommerce.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// one time-bounded claim on a unit of scheduled work, shared by all instances through the database
+@Entity
+@Table(name = "scheduler_leases")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchedulerLease {
+
+    @Id
+    private String name;
+
+    // node id of the holder, null once released
+    @Column
+    private String owner;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
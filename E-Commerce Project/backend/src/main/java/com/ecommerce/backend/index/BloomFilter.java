@@ -0,0 +1,124 @@
+package com.ecommerce.backend.index;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bloom filter over long and String keys: mightContain never answers false for a key that was added, and answers
+// true for a key that was not with roughly the false-positive rate it was sized for, as long as no more than
+// expectedInsertions keys go in. Keys cannot be removed, rebuild a fresh filter instead.
+// Bits are set with compare-and-set, adds and lookups may run concurrently from any thread.
+public class BloomFilter {
+
+    private static final long SECOND_HASH_SEED = 0x9E3779B97F4A7C15L;
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final long expectedInsertions;
+    private final AtomicLong bitsSet = new AtomicLong();
+    private final AtomicLong insertions = new AtomicLong();
+
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("expected insertions must be positive and the rate between 0 and 1");
+        }
+        // optimal size m = -n ln p / (ln 2)^2 and hash count k = m / n ln 2
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) / 64));
+        this.words = new AtomicLongArray(words);
+        this.bitCount = words * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    public void add(long key) {
+        add(mix(key), mix(key ^ SECOND_HASH_SEED));
+    }
+
+    public void add(String key) {
+        long hash = hash(key);
+        add(mix(hash), mix(hash ^ SECOND_HASH_SEED));
+    }
+
+    public boolean mightContain(long key) {
+        return mightContain(mix(key), mix(key ^ SECOND_HASH_SEED));
+    }
+
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        return mightContain(mix(hash), mix(hash ^ SECOND_HASH_SEED));
+    }
+
+    // false-positive rate predicted from how full the filter is: (fraction of bits set)^k
+    public double expectedFalsePositiveRate() {
+        return Math.pow((double) bitsSet.get() / bitCount, hashCount);
+    }
+
+    // distinct keys added, approximately: adding a key again sets no new bit and is not counted
+    public long insertions() {
+        return insertions.get();
+    }
+
+    public long expectedInsertions() {
+        return expectedInsertions;
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    // k bit positions from two hashes (h1 + i * h2), as good as k independent hashes for a Bloom filter
+    private void add(long h1, long h2) {
+        boolean changed = false;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = ((h1 + i * h2) & Long.MAX_VALUE) % bitCount;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!words.compareAndSet(word, current, current | mask));
+            if ((current & mask) == 0) {
+                bitsSet.incrementAndGet();
+                changed = true;
+            }
+        }
+        if (changed) {
+            insertions.incrementAndGet();
+        }
+    }
+
+    private boolean mightContain(long h1, long h2) {
+        for (int i = 0; i < hashCount; i++) {
+            long bit = ((h1 + i * h2) & Long.MAX_VALUE) % bitCount;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 64-bit FNV-1a over the UTF-16 chars, String.hashCode has too few bits for large filters
+    private static long hash(String key) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    // SplitMix64 finalizer, spreads sequential ids over all bits
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
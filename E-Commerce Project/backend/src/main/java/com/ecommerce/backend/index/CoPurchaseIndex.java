@@ -0,0 +1,107 @@
+package com.ecommerce.backend.index;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// How often products are bought together, kept per product as a bounded set of neighbours.
+// Each product tracks at most maxTracked neighbours (space-saving: a new neighbour replaces the
+// least frequent one) and publishes its top-K as an immutable list, so reads are a single map lookup.
+@Component
+public class CoPurchaseIndex {
+
+    private final int topK;
+    private final int maxTracked;
+    private final int maxProductsPerOrder;
+
+    private final Map<Long, Neighbours> neighboursByProduct = new ConcurrentHashMap<>();
+
+    public CoPurchaseIndex(@Value("${recommendations.co-purchase.top-k:10}") int topK,
+                           @Value("${recommendations.co-purchase.max-tracked:100}") int maxTracked,
+                           @Value("${recommendations.co-purchase.max-products-per-order:50}") int maxProductsPerOrder) {
+        this.topK = topK;
+        this.maxTracked = maxTracked;
+        this.maxProductsPerOrder = maxProductsPerOrder;
+    }
+
+    // counts every pair of distinct products in one order, huge carts are capped to bound the pair count
+    public void recordOrder(Collection<Long> productIds) {
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(productIds));
+        if (distinct.size() > maxProductsPerOrder) {
+            distinct = distinct.subList(0, maxProductsPerOrder);
+        }
+        for (Long productId : distinct) {
+            Neighbours neighbours = neighboursByProduct.computeIfAbsent(productId, id -> new Neighbours());
+            for (Long other : distinct) {
+                if (!other.equals(productId)) {
+                    neighbours.increment(other);
+                }
+            }
+        }
+    }
+
+    // most frequently co-purchased products, best first
+    public List<Long> topNeighbours(Long productId) {
+        Neighbours neighbours = neighboursByProduct.get(productId);
+        return neighbours != null ? neighbours.top : List.of();
+    }
+
+    // drops the product's own neighbours and its entry in every other product's neighbours, freeing the slot
+    public void removeProduct(Long productId) {
+        neighboursByProduct.remove(productId);
+        for (Neighbours neighbours : neighboursByProduct.values()) {
+            neighbours.remove(productId);
+        }
+    }
+
+    public int size() {
+        return neighboursByProduct.size();
+    }
+
+    private class Neighbours {
+        private final Map<Long, Long> counts = new HashMap<>();
+        private volatile List<Long> top = List.of();
+
+        synchronized void increment(Long other) {
+            Long count = counts.get(other);
+            if (count == null && counts.size() >= maxTracked) {
+                // space-saving: take over the slot of the least frequent neighbour and inherit its count
+                Map.Entry<Long, Long> least = counts.entrySet().stream()
+                        .min(Map.Entry.comparingByValue())
+                        .orElseThrow();
+                counts.remove(least.getKey());
+                count = least.getValue();
+            }
+            long newCount = (count != null ? count : 0L) + 1;
+            counts.put(other, newCount);
+
+            // the top list only changes when this neighbour can now rank in it
+            List<Long> currentTop = top;
+            if (currentTop.size() == topK && newCount < counts.getOrDefault(currentTop.get(topK - 1), 0L)) {
+                return;
+            }
+            updateTop();
+        }
+
+        synchronized void remove(Long other) {
+            if (counts.remove(other) != null && top.contains(other)) {
+                updateTop();
+            }
+        }
+
+        private void updateTop() {
+            top = counts.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
+                    .limit(topK)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.ecommerce.backend.index;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Guards lookups of keys that usually exist (product ids, promo codes) against floods of keys that do not: a key
+// the Bloom filter has never seen is definitely absent and the caller can answer "not found" without a query.
+// Keys created elsewhere (another node, the database directly) reach the filter only when its owner syncs it, so
+// it only rejects keys while its last sync is at most maxStaleness old; until the first build, and whenever syncing
+// falls behind, every key passes. Keys cannot be removed from a Bloom filter, deleted keys only cost a query until
+// the next rebuild; a rebuild also resizes the filter to the current key count.
+// Lookups that passed but found nothing are reported back as false positives, so the observed rate is
+// false positives / (false positives + rejected), exported with the rejected and false positive counts under
+// existence.filter.* tagged with the filter name.
+public class ExistenceFilter {
+
+    // headroom for keys added between rebuilds
+    private static final int GROWTH_FACTOR = 2;
+    private static final long MIN_CAPACITY = 1_000;
+
+    private final double falsePositiveRate;
+    private final long maxStalenessNanos;
+    private volatile BloomFilter filter;
+    private volatile boolean ready;
+    // System.nanoTime() at which the last completed sync started reading keys
+    private volatile long syncedAt;
+    // filter being built while a rebuild scans the keys, adds go to both so none is lost in the swap
+    private BloomFilter building;
+
+    private final Counter rejected;
+    private final Counter falsePositives;
+
+    public ExistenceFilter(String name, double falsePositiveRate, Duration maxStaleness, MeterRegistry meterRegistry) {
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxStalenessNanos = maxStaleness.toNanos();
+        this.filter = new BloomFilter(MIN_CAPACITY, falsePositiveRate);
+        this.rejected = Counter.builder("existence.filter.rejected")
+                .description("lookups answered as not found without a query")
+                .tag("filter", name)
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("existence.filter.false.positives")
+                .description("lookups the filter let through that found nothing")
+                .tag("filter", name)
+                .register(meterRegistry);
+        Gauge.builder("existence.filter.false.positive.rate", this, ExistenceFilter::observedFalsePositiveRate)
+                .description("share of absent keys the filter let through")
+                .tag("filter", name)
+                .register(meterRegistry);
+        Gauge.builder("existence.filter.expected.false.positive.rate", this,
+                        guard -> guard.filter.expectedFalsePositiveRate())
+                .description("false-positive rate predicted from the filter's fill")
+                .tag("filter", name)
+                .register(meterRegistry);
+    }
+
+    public boolean mightContain(long key) {
+        if (!isCurrent() || filter.mightContain(key)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public boolean mightContain(String key) {
+        if (!isCurrent() || filter.mightContain(key)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    // the caller's query found nothing for a key this filter let through
+    public void recordFalsePositive() {
+        if (isCurrent()) {
+            falsePositives.increment();
+        }
+    }
+
+    public synchronized void add(long key) {
+        filter.add(key);
+        if (building != null) {
+            building.add(key);
+        }
+    }
+
+    public synchronized void add(String key) {
+        filter.add(key);
+        if (building != null) {
+            building.add(key);
+        }
+    }
+
+    // Builds a new filter sized for `keyCount` keys from what `loader` feeds it and swaps it in. Keys added while
+    // the loader runs go into both filters, so a key committed before the rebuild started is either read by the
+    // loader or was added through add().
+    public void rebuild(long keyCount, Consumer<BloomFilter> loader) {
+        long started = System.nanoTime();
+        BloomFilter rebuilt = new BloomFilter(Math.max(MIN_CAPACITY, keyCount * GROWTH_FACTOR), falsePositiveRate);
+        synchronized (this) {
+            building = rebuilt;
+        }
+        try {
+            loader.accept(rebuilt);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                building = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            filter = rebuilt;
+            building = null;
+            ready = true;
+            syncedAt = started;
+        }
+    }
+
+    // the owner added every key created before `startedAt` (a System.nanoTime() taken before it read them)
+    public synchronized void markSynced(long startedAt) {
+        if (startedAt - syncedAt > 0) {
+            syncedAt = startedAt;
+        }
+    }
+
+    // built, and synced recently enough that a key missing from the filter really does not exist
+    public boolean isCurrent() {
+        return ready && System.nanoTime() - syncedAt <= maxStalenessNanos;
+    }
+
+    // more keys went in than the filter was sized for, its false-positive rate is above the target
+    public boolean needsRebuild() {
+        BloomFilter current = filter;
+        return current.insertions() > current.expectedInsertions();
+    }
+
+    public Map<String, Object> stats() {
+        BloomFilter current = filter;
+        return Map.of(
+                "current", isCurrent(),
+                "syncAgeMs", ready ? (System.nanoTime() - syncedAt) / 1_000_000 : -1L,
+                "keys", current.insertions(),
+                "capacity", current.expectedInsertions(),
+                "bits", current.bitCount(),
+                "hashes", current.hashCount(),
+                "rejected", (long) rejected.count(),
+                "falsePositives", (long) falsePositives.count(),
+                "falsePositiveRate", observedFalsePositiveRate(),
+                "expectedFalsePositiveRate", current.expectedFalsePositiveRate()
+        );
+    }
+
+    private double observedFalsePositiveRate() {
+        double negatives = rejected.count() + falsePositives.count();
+        return negatives == 0 ? 0.0 : falsePositives.count() / negatives;
+    }
+}
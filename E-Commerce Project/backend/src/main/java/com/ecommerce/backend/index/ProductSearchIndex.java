@@ -0,0 +1,313 @@
+package com.ecommerce.backend.index;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory inverted index over product title, category and description.
+// Query terms match exactly, as a prefix (the last term, for autocomplete) or within one edit
+// (insert, delete, substitute or transpose) through a symmetric-delete table, so no query scans
+// the whole dictionary. Every query term must match; results are ranked by field weight.
+@Component
+public class ProductSearchIndex {
+
+    private static final byte TITLE = 1;
+    private static final byte CATEGORY = 2;
+    private static final byte DESCRIPTION = 4;
+
+    private static final float EXACT = 1.0f;
+    private static final float PREFIX = 0.7f;
+    private static final float FUZZY = 0.5f;
+
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int MIN_FUZZY_LENGTH = 4; // shorter terms have too many one-edit neighbours
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it",
+            "of", "on", "or", "the", "to", "with");
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> products containing it and the fields it appears in
+    private final NavigableMap<String, Posting> postings = new TreeMap<>();
+    // one-character deletion of a term -> terms it came from
+    private final Map<String, Set<String>> deletions = new HashMap<>();
+    // product id -> its terms, needed to unindex on update and delete
+    private final Map<Long, String[]> termsByProduct = new HashMap<>();
+
+    public void index(Long productId, String title, String category, String description) {
+        Map<String, Byte> fieldsByTerm = new HashMap<>();
+        addTerms(fieldsByTerm, title, TITLE);
+        addTerms(fieldsByTerm, category, CATEGORY);
+        addTerms(fieldsByTerm, description, DESCRIPTION);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+            fieldsByTerm.forEach((term, fields) -> {
+                postings.computeIfAbsent(term, t -> {
+                    for (String deletion : deletionsOf(t)) {
+                        deletions.computeIfAbsent(deletion, d -> new HashSet<>()).add(t);
+                    }
+                    return new Posting();
+                }).add(productId, fields);
+            });
+            termsByProduct.put(productId, fieldsByTerm.keySet().toArray(new String[0]));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ids of the best matching products, best first
+    public List<Long> search(String query, int limit) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = null;
+            for (int i = 0; i < queryTerms.size(); i++) {
+                boolean last = i == queryTerms.size() - 1;
+                Map<Long, Float> termScores = scoreTerm(queryTerms.get(i), last);
+                scores = scores == null ? termScores : intersect(scores, termScores);
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return topIds(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return termsByProduct.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // best score per product for one query term, across its exact, prefix and fuzzy matches
+    private Map<Long, Float> scoreTerm(String queryTerm, boolean allowPrefix) {
+        Map<Long, Float> scores = new HashMap<>();
+        addPostings(scores, postings.get(queryTerm), EXACT);
+
+        if (allowPrefix) {
+            int expansions = 0;
+            for (Map.Entry<String, Posting> entry
+                    : postings.subMap(queryTerm, false, queryTerm + Character.MAX_VALUE, false).entrySet()) {
+                if (++expansions > MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                addPostings(scores, entry.getValue(), PREFIX);
+            }
+        }
+
+        if (queryTerm.length() >= MIN_FUZZY_LENGTH) {
+            Set<String> candidates = new HashSet<>();
+            collect(candidates, deletions.get(queryTerm)); // query has one extra character
+            for (String deletion : deletionsOf(queryTerm)) {
+                if (postings.containsKey(deletion)) {
+                    candidates.add(deletion); // query is missing one character
+                }
+                collect(candidates, deletions.get(deletion)); // substitution or transposition
+            }
+            candidates.remove(queryTerm);
+            for (String candidate : candidates) {
+                if (withinOneEdit(queryTerm, candidate)) {
+                    addPostings(scores, postings.get(candidate), FUZZY);
+                }
+            }
+        }
+        return scores;
+    }
+
+    private void addPostings(Map<Long, Float> scores, Posting posting, float matchWeight) {
+        if (posting == null) {
+            return;
+        }
+        for (int i = 0; i < posting.size; i++) {
+            scores.merge(posting.productIds[i], matchWeight * fieldWeight(posting.fields[i]), Math::max);
+        }
+    }
+
+    private Map<Long, Float> intersect(Map<Long, Float> scores, Map<Long, Float> termScores) {
+        Map<Long, Float> smaller = scores.size() <= termScores.size() ? scores : termScores;
+        Map<Long, Float> larger = smaller == scores ? termScores : scores;
+        Map<Long, Float> result = new HashMap<>();
+        smaller.forEach((productId, score) -> {
+            Float other = larger.get(productId);
+            if (other != null) {
+                result.put(productId, score + other);
+            }
+        });
+        return result;
+    }
+
+    private List<Long> topIds(Map<Long, Float> scores, int limit) {
+        // min-heap of the best `limit` entries, ties go to the lower id
+        PriorityQueue<Map.Entry<Long, Float>> best = new PriorityQueue<>((a, b) -> {
+            int byScore = Float.compare(a.getValue(), b.getValue());
+            return byScore != 0 ? byScore : Long.compare(b.getKey(), a.getKey());
+        });
+        for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+            best.offer(entry);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<Long> ids = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            ids.add(best.poll().getKey());
+        }
+        Collections.reverse(ids);
+        return ids;
+    }
+
+    private void removeLocked(Long productId) {
+        String[] terms = termsByProduct.remove(productId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Posting posting = postings.get(term);
+            if (posting == null) {
+                continue;
+            }
+            posting.remove(productId);
+            if (posting.size == 0) {
+                postings.remove(term);
+                for (String deletion : deletionsOf(term)) {
+                    Set<String> sources = deletions.get(deletion);
+                    if (sources != null && sources.remove(term) && sources.isEmpty()) {
+                        deletions.remove(deletion);
+                    }
+                }
+            }
+        }
+    }
+
+    // product ids with their field bits in two parallel arrays, far smaller than a map of boxed values
+    private static final class Posting {
+        private long[] productIds = new long[2];
+        private byte[] fields = new byte[2];
+        private int size;
+
+        // callers remove the product first, so ids are never duplicated
+        void add(long productId, byte productFields) {
+            if (size == productIds.length) {
+                productIds = Arrays.copyOf(productIds, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            productIds[size] = productId;
+            fields[size] = productFields;
+            size++;
+        }
+
+        void remove(long productId) {
+            for (int i = 0; i < size; i++) {
+                if (productIds[i] == productId) {
+                    size--;
+                    productIds[i] = productIds[size];
+                    fields[i] = fields[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    private static void addTerms(Map<String, Byte> fieldsByTerm, String text, byte field) {
+        for (String term : tokenize(text)) {
+            fieldsByTerm.merge(term, field, (a, b) -> (byte) (a | b));
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String token : text.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+
+    private static float fieldWeight(byte fields) {
+        float weight = 0;
+        if ((fields & TITLE) != 0) weight += 3;
+        if ((fields & CATEGORY) != 0) weight += 2;
+        if ((fields & DESCRIPTION) != 0) weight += 1;
+        return weight;
+    }
+
+    private static List<String> deletionsOf(String term) {
+        List<String> result = new ArrayList<>(term.length());
+        if (term.length() < MIN_FUZZY_LENGTH) {
+            return result;
+        }
+        for (int i = 0; i < term.length(); i++) {
+            result.add(term.substring(0, i) + term.substring(i + 1));
+        }
+        return result;
+    }
+
+    private static void collect(Set<String> target, Set<String> source) {
+        if (source != null) {
+            target.addAll(source);
+        }
+    }
+
+    // optimal string alignment distance <= 1 (one insert, delete, substitution or adjacent transposition)
+    static boolean withinOneEdit(String a, String b) {
+        int lengthDifference = a.length() - b.length();
+        if (Math.abs(lengthDifference) > 1) {
+            return false;
+        }
+        int i = 0;
+        while (i < a.length() && i < b.length() && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (lengthDifference > 0) {
+            return a.substring(i + 1).equals(b.substring(i));
+        }
+        if (lengthDifference < 0) {
+            return a.substring(i).equals(b.substring(i + 1));
+        }
+        if (i >= a.length()) {
+            return true;
+        }
+        if (a.substring(i + 1).equals(b.substring(i + 1))) {
+            return true; // substitution
+        }
+        return i + 1 < a.length() && a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i)
+                && a.substring(i + 2).equals(b.substring(i + 2)); // transposition
+    }
+}
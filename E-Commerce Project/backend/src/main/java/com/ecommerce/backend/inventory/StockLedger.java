@@ -0,0 +1,241 @@
+package com.ecommerce.backend.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// In-memory stock counters that checkouts reserve against, one atomic counter per product.
+// Every instance sells only units it has claimed from the DB first: products.stock holds the units no
+// instance has claimed yet, and a claim takes a block of them with a single conditional decrement. A
+// reservation is then a compare-and-set on the local counter, so checkouts on a hot product never queue on
+// a row lock and the DB sees one UPDATE per block instead of one per order. Instances never sell more than
+// the DB handed out, however many of them run. Units an instance holds but does not need go back to the DB
+// through returnUnused. Units held by an instance that dies without returning them are lost to sale (never
+// oversold); a restock puts them back.
+// Products whose stock column is null are untracked and can always be reserved.
+public class StockLedger {
+
+    // how many times a claim is retried when other instances keep taking the units it just read
+    private static final int CLAIM_ATTEMPTS = 3;
+
+    private final StockStore store;
+    private final int blockSize;
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    // striped, checkouts on the same product must not contend on the statistics as well
+    private final LongAdder reserved = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder released = new LongAdder();
+    private final LongAdder claims = new LongAdder();
+    private final LongAdder unitsClaimed = new LongAdder();
+    private final LongAdder unitsReturned = new LongAdder();
+
+    public StockLedger(StockStore store, int blockSize) {
+        this.store = store;
+        this.blockSize = blockSize;
+    }
+
+    // takes units from the product's available stock, false (and nothing taken) when not enough is left
+    public boolean tryReserve(Long productId, int units) {
+        Counter counter = counter(productId);
+        if (counter.untracked) {
+            return true;
+        }
+        while (true) {
+            if (takeLocal(counter, units)) {
+                reserved.add(units);
+                return true;
+            }
+            if (!claim(productId, counter, units)) {
+                rejected.increment();
+                return false;
+            }
+        }
+    }
+
+    // all-or-nothing reservation of a whole cart, returns the first product that ran out or null on success
+    public Long tryReserveAll(Map<Long, Integer> unitsByProduct) {
+        List<Map.Entry<Long, Integer>> taken = new ArrayList<>(unitsByProduct.size());
+        for (Map.Entry<Long, Integer> line : unitsByProduct.entrySet()) {
+            if (!tryReserve(line.getKey(), line.getValue())) {
+                taken.forEach(entry -> release(entry.getKey(), entry.getValue()));
+                return line.getKey();
+            }
+            taken.add(line);
+        }
+        return null;
+    }
+
+    // gives units back to this instance (cancelled order or failed checkout); the surplus over a block goes
+    // back to the DB on the next returnUnused
+    public void release(Long productId, int units) {
+        Counter counter = counter(productId);
+        if (!counter.untracked) {
+            counter.held.addAndGet(units);
+            released.add(units);
+        }
+    }
+
+    // units this instance can reserve without going to the DB, null for untracked products
+    public Integer held(Long productId) {
+        Counter counter = counter(productId);
+        return counter.untracked ? null : counter.held.get();
+    }
+
+    // the product's stock changed in the DB (restock), a sold-out product may be claimed from again
+    public void stockAdded(Long productId) {
+        Counter counter = counters.get(productId);
+        if (counter != null) {
+            counter.soldOut = false;
+        }
+    }
+
+    // forgets a product (deleted, or tracked from now on), its next use reloads it from the DB
+    public void remove(Long productId) {
+        counters.remove(productId);
+    }
+
+    // Hands units this instance does not need back to the DB, so other instances can sell them: all of them
+    // for products nobody reserved since the previous call, the surplus over one block for the others.
+    // Also lets sold-out and untracked products be looked up again, which is how restocks and newly tracked
+    // products made on other instances become visible here. Only the scheduled reconcile calls this.
+    public void returnUnused() {
+        counters.forEach((productId, counter) -> {
+            if (counter.untracked) {
+                counters.remove(productId, counter);
+                return;
+            }
+            counter.soldOut = false;
+            boolean idle = !counter.used;
+            counter.used = false;
+            giveBack(productId, counter, idle ? 0 : blockSize);
+        });
+    }
+
+    // returns every held unit, before the instance shuts down
+    public void returnAll() {
+        counters.forEach((productId, counter) -> {
+            if (!counter.untracked) {
+                giveBack(productId, counter, 0);
+            }
+        });
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "trackedProducts", counters.values().stream().filter(counter -> !counter.untracked).count(),
+                "unitsHeld", counters.values().stream().mapToLong(counter -> counter.held.get()).sum(),
+                "unitsReserved", reserved.sum(),
+                "unitsReleased", released.sum(),
+                "rejectedReservations", rejected.sum(),
+                "claims", claims.sum(),
+                "unitsClaimed", unitsClaimed.sum(),
+                "unitsReturned", unitsReturned.sum()
+        );
+    }
+
+    private boolean takeLocal(Counter counter, int units) {
+        while (true) {
+            int held = counter.held.get();
+            if (held < units) {
+                return false;
+            }
+            if (counter.held.compareAndSet(held, held - units)) {
+                counter.used = true;
+                return true;
+            }
+        }
+    }
+
+    // Tops the counter up from the DB so that at least units are held, false when the DB has too few left.
+    // One thread claims per product at a time; the others wait for its block instead of all hitting the row.
+    private boolean claim(Long productId, Counter counter, int units) {
+        counter.claimLock.lock();
+        try {
+            int shortfall = units - counter.held.get();
+            if (shortfall <= 0) {
+                return true; // topped up while this thread waited
+            }
+            if (counter.soldOut) {
+                return false; // the DB ran out since the last returnUnused, do not ask again on every checkout
+            }
+            int wanted = Math.max(shortfall, blockSize);
+            Integer left = null;
+            for (int attempt = 0; attempt < CLAIM_ATTEMPTS; attempt++) {
+                if (store.take(productId, wanted)) {
+                    counter.held.addAndGet(wanted);
+                    claims.increment();
+                    unitsClaimed.add(wanted);
+                    return true;
+                }
+                // less than a block left: take what there is if it covers the shortfall
+                left = store.stock(productId);
+                if (left == null || left < shortfall) {
+                    break;
+                }
+                wanted = Math.min(wanted, left);
+            }
+            if (left == null || left == 0) {
+                counter.soldOut = true; // smaller orders can still be served from a few units left
+            }
+            return false;
+        } finally {
+            counter.claimLock.unlock();
+        }
+    }
+
+    private void giveBack(Long productId, Counter counter, int keep) {
+        int surplus;
+        while (true) {
+            int held = counter.held.get();
+            if (held <= keep) {
+                return;
+            }
+            if (counter.held.compareAndSet(held, keep)) {
+                surplus = held - keep;
+                break;
+            }
+        }
+        if (store.giveBack(productId, surplus)) {
+            unitsReturned.add(surplus);
+        } else {
+            counters.remove(productId, counter); // no longer tracked or deleted, nothing to return to
+        }
+    }
+
+    private Counter counter(Long productId) {
+        return counters.computeIfAbsent(productId, id -> new Counter(store.stock(id) == null));
+    }
+
+    // The DB side of the ledger: products.stock, the units no instance has claimed yet
+    public interface StockStore {
+
+        // unclaimed units, null when the product is untracked or does not exist
+        Integer stock(Long productId);
+
+        // takes units if at least that many are unclaimed (conditional decrement), false otherwise
+        boolean take(Long productId, int units);
+
+        // puts units back, false when the product is no longer tracked
+        boolean giveBack(Long productId, int units);
+    }
+
+    private static final class Counter {
+        final boolean untracked;
+        // units claimed from the DB and not reserved yet
+        final AtomicInteger held = new AtomicInteger();
+        final ReentrantLock claimLock = new ReentrantLock();
+        // set by reservations, cleared by returnUnused
+        volatile boolean used;
+        // the last claim found too few units in the DB, cleared by returnUnused and restocks
+        volatile boolean soldOut;
+
+        Counter(boolean untracked) {
+            this.untracked = untracked;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.ecommerce.backend.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+// Records per endpoint how many SQL statements, entity loads and collection fetches one request caused,
+// an endpoint whose statement count grows with the result size is an N+1 candidate.
+// Work done after an async handler returns (group-commit checkouts, streamed exports) is not attributed.
+public class HibernateRequestMetrics implements AsyncHandlerInterceptor {
+
+    private final MeterRegistry meterRegistry;
+
+    public HibernateRequestMetrics(MeterRegistry meterRegistry, EntityManagerFactory entityManagerFactory,
+                                   RequestQueryCounter counter) {
+        this.meterRegistry = meterRegistry;
+        EventListenerRegistry listeners = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .requireService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_LOAD, counter);
+        listeners.appendListeners(EventType.INIT_COLLECTION, counter);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // the async re-dispatch only writes the result, its queries were counted on the first dispatch
+        if (request.getDispatcherType() != DispatcherType.ASYNC) {
+            RequestQueryCounter.start();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        record(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        record(request);
+    }
+
+    private void record(HttpServletRequest request) {
+        RequestQueryCounter.Counts counts = RequestQueryCounter.stop();
+        if (counts == null) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        summary("hibernate.request.statements", "SQL statements prepared per request", uri, request)
+                .record(counts.statements);
+        summary("hibernate.request.entity.loads", "entities loaded per request", uri, request)
+                .record(counts.entityLoads);
+        summary("hibernate.request.collection.fetches", "lazy collections initialized per request", uri, request)
+                .record(counts.collectionFetches);
+    }
+
+    private DistributionSummary summary(String name, String description, String uri, HttpServletRequest request) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tag("uri", uri)
+                .tag("method", request.getMethod())
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,57 @@
+package com.ecommerce.backend.metrics;
+
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Counts what Hibernate does on the current thread between start() and stop(): SQL statements prepared,
+// entities loaded and lazy collections fetched. Hibernate calls it as statement inspector and event listener,
+// threads that never called start() (schedulers, background loaders) are not counted.
+public class RequestQueryCounter implements StatementInspector, PostLoadEventListener, InitializeCollectionEventListener {
+
+    private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+
+    public static void start() {
+        CURRENT.set(new Counts());
+    }
+
+    // counts of the finished request, null when start() was not called on this thread
+    public static Counts stop() {
+        Counts counts = CURRENT.get();
+        CURRENT.remove();
+        return counts;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.statements++;
+        }
+        return sql;
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.entityLoads++;
+        }
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.collectionFetches++;
+        }
+    }
+
+    public static final class Counts {
+        int statements;
+        int entityLoads;
+        int collectionFetches;
+    }
+}
@@ -0,0 +1,53 @@
+package com.ecommerce.backend.metrics;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Hit, miss and put counts per Hibernate second-level cache region (entity and query regions alike), taken from
+// the Hibernate statistics; the same counts are exported per region as hibernate.second.level.cache.* meters
+@Component
+public class SecondLevelCacheStats {
+
+    private final SessionFactoryImplementor sessionFactory;
+
+    public SecondLevelCacheStats(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    }
+
+    public Map<String, Object> getStats() {
+        Statistics statistics = sessionFactory.getStatistics();
+        Map<String, Object> regions = new TreeMap<>();
+        for (String name : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+            if (region != null) {
+                regions.put(name, counts(region.getHitCount(), region.getMissCount(), region.getPutCount()));
+            }
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled());
+        stats.put("entities", counts(statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(), statistics.getSecondLevelCachePutCount()));
+        stats.put("queries", counts(statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount()));
+        stats.put("regions", regions);
+        stats.put("statementsPrepared", statistics.getPrepareStatementCount());
+        return stats;
+    }
+
+    private Map<String, Object> counts(long hits, long misses, long puts) {
+        return Map.of(
+                "hits", hits,
+                "misses", misses,
+                "puts", puts,
+                "hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses)
+        );
+    }
+}
@@ -1,9 +1,21 @@
 package com.ecommerce.backend.repository;
 
 import com.ecommerce.backend.entity.OrderItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.stream.Stream;
+
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
-}
\ No newline at end of file
+
+    // (order id, product id) pairs grouped by order, for building the co-purchase index
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select i.order.id, i.product.id from OrderItem i where i.order.id <= :maxOrderId order by i.order.id")
+    Stream<Object[]> streamOrderProductPairs(@Param("maxOrderId") Long maxOrderId);
+}
@@ -1,16 +1,117 @@
 package com.ecommerce.backend.repository;
 
+import com.ecommerce.backend.dto.OrderItemRowDTO;
 import com.ecommerce.backend.entity.Order;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    // flat read path: order, items and product title/image in one join, no entity graph is loaded
+    String ORDER_ROW_SELECT = "select new com.ecommerce.backend.dto.OrderItemRowDTO(" +
+            "o.id, o.addressLine1, o.state, o.pincode, o.originalPrice, pc.code, o.discountAmount, " +
+            "o.finalPrice, o.status, o.orderDate, o.deliveryDate, " +
+            "i.id, p.id, p.title, p.image, i.quantity, i.price, i.totalPrice) " +
+            "from Order o left join o.promoCode pc left join o.orderItems i left join i.product p ";
     
     List<Order> findByStatus(String status);
     
     List<Order> findByStatusAndOrderDateBefore(String status, LocalDateTime dateTime);
+
+    @Query("select o.id from Order o where o.id > :id order by o.id")
+    List<Long> findIdsAfter(@Param("id") Long id, Pageable pageable);
+
+    @Query(ORDER_ROW_SELECT + "where o.id = :id order by i.id")
+    List<OrderItemRowDTO> findRowsById(@Param("id") Long id);
+
+    @Query(ORDER_ROW_SELECT + "where o.id in :ids order by o.id, i.id")
+    List<OrderItemRowDTO> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(ORDER_ROW_SELECT + "order by o.id, i.id")
+    List<OrderItemRowDTO> findAllRows();
+
+    @Query(ORDER_ROW_SELECT + "where o.status = :status order by o.id, i.id")
+    List<OrderItemRowDTO> findRowsByStatus(@Param("status") String status);
+
+    // forward-only cursors for exports, must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(ORDER_ROW_SELECT + "where o.orderDate >= :from and o.orderDate < :to order by o.id, i.id")
+    Stream<OrderItemRowDTO> streamRowsByOrderDateBetween(@Param("from") LocalDateTime from,
+                                                         @Param("to") LocalDateTime to);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(ORDER_ROW_SELECT + "where o.status = :status and o.orderDate >= :from and o.orderDate < :to " +
+            "order by o.id, i.id")
+    Stream<OrderItemRowDTO> streamRowsByStatusAndOrderDateBetween(@Param("status") String status,
+                                                                  @Param("from") LocalDateTime from,
+                                                                  @Param("to") LocalDateTime to);
+
+    // (order id, status, order date) of every order in the given shards (id mod shardCount) that still has a
+    // status transition ahead, for the status timer
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select o.id, o.status, o.orderDate from Order o " +
+            "where o.status in ('PENDING', 'SHIPPED', 'OUT_FOR_DELIVERY') " +
+            "and mod(o.id, :shardCount) in :shards")
+    Stream<Object[]> streamInFlightStatuses(@Param("shardCount") int shardCount,
+                                            @Param("shards") Collection<Integer> shards);
+
+    // same, limited to orders placed since the given time, to pick up orders other nodes created
+    @Query("select o.id, o.status, o.orderDate from Order o " +
+            "where o.status in ('PENDING', 'SHIPPED', 'OUT_FOR_DELIVERY') and o.orderDate >= :since " +
+            "and mod(o.id, :shardCount) in :shards")
+    List<Object[]> findInFlightStatusesSince(@Param("since") LocalDateTime since,
+                                             @Param("shardCount") int shardCount,
+                                             @Param("shards") Collection<Integer> shards);
+
+    @Query("select coalesce(max(o.id), 0) from Order o")
+    Long findMaxId();
+
+    // bulk status transition for one id range of this node's shards, each call runs in its own short transaction
+    @Transactional
+    @Modifying
+    @Query("update Order o set o.status = :toStatus " +
+            "where o.status = :fromStatus and o.orderDate < :orderedBefore and o.id > :fromId and o.id <= :toId " +
+            "and mod(o.id, :shardCount) in :shards")
+    int updateStatusInRange(@Param("fromStatus") String fromStatus, @Param("toStatus") String toStatus,
+                            @Param("orderedBefore") LocalDateTime orderedBefore,
+                            @Param("fromId") Long fromId, @Param("toId") Long toId,
+                            @Param("shardCount") int shardCount, @Param("shards") Collection<Integer> shards);
+
+    @Transactional
+    @Modifying
+    @Query("update Order o set o.status = 'DELIVERED', o.deliveryDate = :deliveredAt " +
+            "where o.status = :fromStatus and o.orderDate < :orderedBefore and o.id > :fromId and o.id <= :toId " +
+            "and mod(o.id, :shardCount) in :shards")
+    int markDeliveredInRange(@Param("fromStatus") String fromStatus, @Param("deliveredAt") LocalDateTime deliveredAt,
+                             @Param("orderedBefore") LocalDateTime orderedBefore,
+                             @Param("fromId") Long fromId, @Param("toId") Long toId,
+                             @Param("shardCount") int shardCount, @Param("shards") Collection<Integer> shards);
+
+    // bulk status transition for orders whose timer fired, skips any that moved on in the meantime
+    @Transactional
+    @Modifying
+    @Query("update Order o set o.status = :toStatus where o.status = :fromStatus and o.id in :ids")
+    int updateStatusForIds(@Param("fromStatus") String fromStatus, @Param("toStatus") String toStatus,
+                           @Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query("update Order o set o.status = 'DELIVERED', o.deliveryDate = :deliveredAt " +
+            "where o.status = :fromStatus and o.id in :ids")
+    int markDeliveredForIds(@Param("fromStatus") String fromStatus, @Param("deliveredAt") LocalDateTime deliveredAt,
+                            @Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.ecommerce.backend.repository;
+
+import jakarta.persistence.Tuple;
+
+import java.util.List;
+
+// custom fragment of ProductRepository for queries whose select list is only known at runtime
+public interface ProductFieldsRepository {
+
+    // selects only the given Product attributes, ordered by id; category, afterId and limit are optional
+    List<Tuple> findFields(List<String> attributes, String category, Long afterId, Integer limit);
+}
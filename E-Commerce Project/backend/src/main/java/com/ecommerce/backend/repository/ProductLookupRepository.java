@@ -0,0 +1,16 @@
+package com.ecommerce.backend.repository;
+
+import com.ecommerce.backend.entity.Product;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+// custom fragment of ProductRepository for id lookups that go through the second-level cache
+public interface ProductLookupRepository {
+
+    // like findAllById, but products already in the entity cache are not queried again and the rest are
+    // loaded with one IN query; missing ids are left out of the result
+    @Transactional(readOnly = true)
+    List<Product> findAllByIdCached(Collection<Long> ids);
+}
@@ -0,0 +1,33 @@
+package com.ecommerce.backend.repository;
+
+import com.ecommerce.backend.entity.Product;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+// picked up by spring data as the implementation of ProductLookupRepository
+class ProductLookupRepositoryImpl implements ProductLookupRepository {
+
+    private final EntityManager entityManager;
+
+    ProductLookupRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Product> findAllByIdCached(Collection<Long> ids) {
+        // a JPQL "id in :ids" query would always hit the database, multiLoad checks the cache per id first
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(Product.class)
+                .with(CacheMode.NORMAL) // multiLoad skips the cache unless a cache mode is set
+                .multiLoad(new ArrayList<>(ids))
+                .stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
@@ -1,16 +1,121 @@
 package com.ecommerce.backend.repository;
 
+import com.ecommerce.backend.dto.PriceBucketCountDTO;
 import com.ecommerce.backend.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository // indicates that this interface is a "repository" component
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductFieldsRepository,
+        ProductLookupRepository {
 
     // custom method to find products by category
+    // the id list per category is kept in the query cache, the products themselves come from the entity cache
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "product-queries")
+    })
     List<Product> findByCategory(String category);
 
+    // keyset pagination: walks the primary key index, so cost depends on page size only
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    // Filtered browsing, a null category means all categories and a null or 0 rating means no rating filter.
+    // Each combination is a query of its own with plain column predicates, so the category-leading indexes
+    // (idx_products_category_price / _rating) stay usable, also under a generic prepared plan; unrated products
+    // fail the rating test.
+    default Slice<Product> browse(String category, Double minPrice, Double maxPrice, Double minRating,
+                                  Pageable pageable) {
+        boolean rated = minRating != null && minRating > 0;
+        if (category == null) {
+            return rated ? browseAllRated(minPrice, maxPrice, minRating, pageable)
+                    : browseAll(minPrice, maxPrice, pageable);
+        }
+        return rated ? browseCategoryRated(category, minPrice, maxPrice, minRating, pageable)
+                : browseCategory(category, minPrice, maxPrice, pageable);
+    }
+
+    @Query("select p from Product p where p.price >= :minPrice and p.price <= :maxPrice")
+    Slice<Product> browseAll(@Param("minPrice") Double minPrice, @Param("maxPrice") Double maxPrice,
+                             Pageable pageable);
+
+    @Query("select p from Product p where p.price >= :minPrice and p.price <= :maxPrice " +
+            "and p.ratingRate >= :minRating")
+    Slice<Product> browseAllRated(@Param("minPrice") Double minPrice, @Param("maxPrice") Double maxPrice,
+                                  @Param("minRating") Double minRating, Pageable pageable);
+
+    @Query("select p from Product p where p.category = :category and p.price >= :minPrice and p.price <= :maxPrice")
+    Slice<Product> browseCategory(@Param("category") String category, @Param("minPrice") Double minPrice,
+                                  @Param("maxPrice") Double maxPrice, Pageable pageable);
+
+    @Query("select p from Product p where p.category = :category and p.price >= :minPrice and p.price <= :maxPrice " +
+            "and p.ratingRate >= :minRating")
+    Slice<Product> browseCategoryRated(@Param("category") String category, @Param("minPrice") Double minPrice,
+                                       @Param("maxPrice") Double maxPrice, @Param("minRating") Double minRating,
+                                       Pageable pageable);
+
+    // product counts per category and price bucket; bucket bounds must match ProductService.PRICE_BUCKET_BOUNDS
+    String PRICE_BUCKET = "case when p.price < 1000 then 0 when p.price < 5000 then 1 when p.price < 20000 then 2 " +
+            "when p.price < 50000 then 3 when p.price < 100000 then 4 else 5 end";
+
+    @Query("select new com.ecommerce.backend.dto.PriceBucketCountDTO(p.category, " + PRICE_BUCKET + ", count(p)) " +
+            "from Product p group by p.category, " + PRICE_BUCKET)
+    List<PriceBucketCountDTO> countByCategoryAndPriceBucket();
+
+    // streams the searchable columns (id, title, category, description) to build the in-memory search index
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select p.id, p.title, p.category, p.description from Product p")
+    Stream<Object[]> streamSearchableFields();
+
+    // every product id, to build the product id filter
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select p.id from Product p")
+    Stream<Long> streamIds();
+
+    // id and creation time of the products created since, for the incremental product id filter sync
+    @Query("select p.id, p.createdAt from Product p where p.createdAt >= :since")
+    List<Object[]> findIdsCreatedSince(@Param("since") LocalDateTime since);
+
+    // stock column only, null when the product is untracked or missing
+    @Query("select p.stock from Product p where p.id = :id")
+    Integer findStockById(@Param("id") Long id);
+
+    // The stock UPDATEs are native SQL synchronized on a query space of their own: a JPQL bulk update of Product
+    // would evict the whole "products" cache region and every cached product query on each reconcile, although
+    // nothing cached depends on the stock column (see Product.stock)
+    String STOCK_SPACE = "product_stock";
+
+    // conditional decrement: touches no row (returns 0) when the DB holds less stock than expected
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = STOCK_SPACE))
+    @Query(value = "update products set stock = stock - :units where id = :id and stock >= :units", nativeQuery = true)
+    int decrementStock(@Param("id") Long id, @Param("units") int units);
+
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = STOCK_SPACE))
+    @Query(value = "update products set stock = stock + :units where id = :id and stock is not null", nativeQuery = true)
+    int incrementStock(@Param("id") Long id, @Param("units") int units);
+
+    // starts tracking stock for a product that had none
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = STOCK_SPACE))
+    @Query(value = "update products set stock = :units where id = :id and stock is null", nativeQuery = true)
+    int initStock(@Param("id") Long id, @Param("units") int units);
+
     // you can add more custom queries here if needed
-    // for example: List<Product> findByNameContainingIgnoreCase(String name);
 }
\ No newline at end of file
@@ -1,17 +1,30 @@
 package com.ecommerce.backend.repository;
 
 import com.ecommerce.backend.entity.PromoCode;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PromoCodeRepository extends JpaRepository<PromoCode, Long> {
 
+    // query cache: repeated lookups of the same code, including unknown ones, skip the database until a promo code
+    // row changes; callers check the validity window themselves, a "now" parameter would make every key unique
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "promo-code-queries")
+    })
     Optional<PromoCode> findByCodeAndIsActiveTrue(String code);
-    
-    Optional<PromoCode> findByCodeAndIsActiveTrueAndValidFromBeforeAndValidUntilAfter(
-            String code, LocalDateTime now1, LocalDateTime now2);
+
+    // codes that are or will become usable, for the initial cache load
+    List<PromoCode> findByIsActiveTrueAndValidUntilAfter(LocalDateTime now);
+
+    // rows changed since the last cache refresh
+    List<PromoCode> findByUpdatedAtGreaterThanEqual(LocalDateTime since);
 }
\ No newline at end of file
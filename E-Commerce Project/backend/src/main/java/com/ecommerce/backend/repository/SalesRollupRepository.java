@@ -0,0 +1,27 @@
+package com.ecommerce.backend.repository;
+
+import com.ecommerce.backend.entity.SalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, Long> {
+
+    List<SalesRollup> findBySalesDateBetween(LocalDate from, LocalDate to);
+
+    // adds a delta in place, returns 0 when the row does not exist yet
+    @Modifying
+    @Query("update SalesRollup r set r.revenue = r.revenue + :revenue, r.discount = r.discount + :discount, " +
+            "r.units = r.units + :units, r.orderCount = r.orderCount + :orderCount " +
+            "where r.salesDate = :salesDate and r.category = :category and r.promoCode = :promoCode")
+    int addToRollup(@Param("salesDate") LocalDate salesDate, @Param("category") String category,
+                    @Param("promoCode") String promoCode, @Param("revenue") Double revenue,
+                    @Param("discount") Double discount, @Param("units") Long units,
+                    @Param("orderCount") Long orderCount);
+}
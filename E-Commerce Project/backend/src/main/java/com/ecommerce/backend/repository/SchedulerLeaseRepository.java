@@ -0,0 +1,44 @@
+package com.ecommerce.backend.repository;
+
+import com.ecommerce.backend.entity.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    List<SchedulerLease> findByNameStartingWith(String prefix);
+
+    // plain insert rather than save(), which would merge over a row another node created in the meantime
+    @Transactional
+    @Modifying
+    @Query("insert into SchedulerLease (name, owner, expiresAt) values (:name, :owner, :expiresAt)")
+    int create(@Param("name") String name, @Param("owner") String owner,
+               @Param("expiresAt") LocalDateTime expiresAt);
+
+    // takes or renews the lease when it is free, expired or already ours; 0 means another node holds it
+    @Transactional
+    @Modifying
+    @Query("update SchedulerLease l set l.owner = :owner, l.expiresAt = :until " +
+            "where l.name = :name and (l.owner = :owner or l.owner is null or l.expiresAt < :now)")
+    int claim(@Param("name") String name, @Param("owner") String owner,
+              @Param("until") LocalDateTime until, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("update SchedulerLease l set l.owner = null where l.name in :names and l.owner = :owner")
+    int release(@Param("names") Collection<String> names, @Param("owner") String owner);
+
+    @Transactional
+    @Modifying
+    @Query("delete from SchedulerLease l where l.name like :prefix% and l.expiresAt < :before")
+    int deleteExpired(@Param("prefix") String prefix, @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,218 @@
+package com.ecommerce.backend.scheduling;
+
+import com.ecommerce.backend.entity.SchedulerLease;
+import com.ecommerce.backend.repository.SchedulerLeaseRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Splits order status work across instances: the order id space is cut into `shards` shards (id mod shards), one
+// lease row per shard in scheduler_leases, and every node claims, renews and releases leases with conditional
+// UPDATEs so at most one node holds a shard at a time. Every node also renews a membership lease of its own, and
+// aims for an equal share of the shards over the live members: a node above its share releases the surplus, a
+// node below it claims free or expired leases, so shards spread out as nodes join and are taken over when a node
+// stops renewing.
+// Lease times come from each node's clock; a node trusts its own lease only for two thirds of the TTL,
+// which leaves a third of the TTL for clock skew and pauses before another node may take it over.
+@Component
+public class ShardLeaseManager {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardLeaseManager.class);
+
+    static final String LEASE_PREFIX = "order-status/";
+    static final String NODE_PREFIX = "node/";
+
+    private final SchedulerLeaseRepository leaseRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Clock clock;
+    private final int shardCount;
+    private final Duration ttl;
+    private final String nodeId;
+
+    // shard -> until when this node may act on it
+    private final Map<Integer, LocalDateTime> owned = new ConcurrentHashMap<>();
+    private volatile boolean leasesCreated;
+
+    @Autowired
+    public ShardLeaseManager(SchedulerLeaseRepository leaseRepository, ApplicationEventPublisher eventPublisher,
+                             @Value("${orders.scheduler.shards:16}") int shardCount,
+                             @Value("${scheduler.lease.ttl:30s}") Duration ttl,
+                             @Value("${scheduler.node-id:}") String nodeId) {
+        this(leaseRepository, eventPublisher, Clock.systemDefaultZone(), shardCount, ttl, nodeId);
+    }
+
+    ShardLeaseManager(SchedulerLeaseRepository leaseRepository, ApplicationEventPublisher eventPublisher,
+                      Clock clock, int shardCount, Duration ttl, String nodeId) {
+        this.leaseRepository = leaseRepository;
+        this.eventPublisher = eventPublisher;
+        this.clock = clock;
+        this.shardCount = shardCount;
+        this.ttl = ttl;
+        this.nodeId = nodeId.isBlank()
+                ? System.getenv().getOrDefault("HOSTNAME", "node") + "-" + UUID.randomUUID().toString().substring(0, 8)
+                : nodeId;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public int shardOf(Long orderId) {
+        return (int) Math.floorMod(orderId, (long) shardCount);
+    }
+
+    public boolean owns(Long orderId) {
+        LocalDateTime validUntil = owned.get(shardOf(orderId));
+        return validUntil != null && validUntil.isAfter(LocalDateTime.now(clock));
+    }
+
+    public Set<Integer> ownedShards() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        Set<Integer> shards = new TreeSet<>();
+        owned.forEach((shard, validUntil) -> {
+            if (validUntil.isAfter(now)) {
+                shards.add(shard);
+            }
+        });
+        return shards;
+    }
+
+    @Scheduled(fixedDelayString = "${scheduler.lease.renew-interval:10s}")
+    public void rebalance() {
+        if (!leasesCreated) {
+            createLeases();
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime until = now.plus(ttl);
+        LocalDateTime validUntil = now.plus(ttl.multipliedBy(2).dividedBy(3));
+
+        if (leaseRepository.claim(NODE_PREFIX + nodeId, nodeId, until, now) == 0) {
+            leaseRepository.create(NODE_PREFIX + nodeId, nodeId, until);
+        }
+        leaseRepository.deleteExpired(NODE_PREFIX, now.minus(ttl));
+        Set<String> liveNodes = new TreeSet<>();
+        liveNodes.add(nodeId);
+        for (SchedulerLease member : leaseRepository.findByNameStartingWith(NODE_PREFIX)) {
+            if (member.getOwner() != null && !member.getExpiresAt().isBefore(now)) {
+                liveNodes.add(member.getOwner());
+            }
+        }
+        // the remainder goes to the first nodes by id, so the shares add up to exactly shardCount
+        int position = new ArrayList<>(liveNodes).indexOf(nodeId);
+        int fairShare = shardCount / liveNodes.size() + (position < shardCount % liveNodes.size() ? 1 : 0);
+
+        List<SchedulerLease> leases = leaseRepository.findByNameStartingWith(LEASE_PREFIX);
+
+        // renew what the table says is ours, anything else this node thought it held is gone
+        Set<Integer> held = new TreeSet<>();
+        for (SchedulerLease lease : leases) {
+            if (nodeId.equals(lease.getOwner()) && leaseRepository.claim(lease.getName(), nodeId, until, now) == 1) {
+                held.add(shardOf(lease.getName()));
+            }
+        }
+
+        List<String> surplus = new ArrayList<>();
+        for (Integer shard : held) {
+            if (held.size() - surplus.size() <= fairShare) {
+                break;
+            }
+            surplus.add(LEASE_PREFIX + shard);
+        }
+        if (!surplus.isEmpty()) {
+            leaseRepository.release(surplus, nodeId);
+            surplus.forEach(name -> held.remove(shardOf(name)));
+        }
+
+        Set<Integer> acquired = new TreeSet<>();
+        for (SchedulerLease lease : leases) {
+            if (held.size() >= fairShare) {
+                break;
+            }
+            boolean free = lease.getOwner() == null || lease.getExpiresAt().isBefore(now);
+            if (free && leaseRepository.claim(lease.getName(), nodeId, until, now) == 1) {
+                held.add(shardOf(lease.getName()));
+                acquired.add(shardOf(lease.getName()));
+            }
+        }
+
+        acquired.addAll(notHeldBefore(held));
+        owned.keySet().retainAll(held);
+        held.forEach(shard -> owned.put(shard, validUntil));
+        if (!acquired.isEmpty()) {
+            log.info("Node {} acquired order shards {}, now holds {} of {} ({} live nodes)",
+                    nodeId, acquired, held.size(), shardCount, liveNodes.size());
+            eventPublisher.publishEvent(new ShardsAcquiredEvent(acquired));
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "nodeId", nodeId,
+                "shardCount", shardCount,
+                "ownedShards", ownedShards()
+        );
+    }
+
+    // hands the shards straight to the other nodes instead of making them wait out the TTL
+    @PreDestroy
+    public void releaseAll() {
+        List<String> names = owned.keySet().stream().map(shard -> LEASE_PREFIX + shard).toList();
+        owned.clear();
+        if (!names.isEmpty()) {
+            leaseRepository.release(names, nodeId);
+        }
+        leaseRepository.deleteById(NODE_PREFIX + nodeId);
+    }
+
+    // held shards this node was not acting on until now, including ones whose local validity lapsed after a late renewal
+    private Set<Integer> notHeldBefore(Set<Integer> held) {
+        Set<Integer> lapsed = new TreeSet<>();
+        LocalDateTime now = LocalDateTime.now(clock);
+        for (Integer shard : held) {
+            LocalDateTime validUntil = owned.get(shard);
+            if (validUntil == null || !validUntil.isAfter(now)) {
+                lapsed.add(shard);
+            }
+        }
+        return lapsed;
+    }
+
+    private void createLeases() {
+        for (int shard = 0; shard < shardCount; shard++) {
+            String name = LEASE_PREFIX + shard;
+            if (!leaseRepository.existsById(name)) {
+                try {
+                    leaseRepository.create(name, null, LocalDateTime.now(clock));
+                } catch (DataIntegrityViolationException e) {
+                    // another node created it first
+                }
+            }
+        }
+        leasesCreated = true;
+    }
+
+    private int shardOf(String leaseName) {
+        return Integer.parseInt(leaseName.substring(LEASE_PREFIX.length()));
+    }
+}
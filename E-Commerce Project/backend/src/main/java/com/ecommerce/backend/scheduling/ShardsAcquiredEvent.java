@@ -0,0 +1,7 @@
+package com.ecommerce.backend.scheduling;
+
+import java.util.Set;
+
+// published by ShardLeaseManager when this node takes over order shards it did not hold before
+public record ShardsAcquiredEvent(Set<Integer> shards) {
+}
@@ -0,0 +1,182 @@
+package com.ecommerce.backend.scheduling;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+// Hierarchical timing wheel: level 0 has `wheelSize` buckets of one tick each, every level above has buckets as
+// wide as the whole level below, so deadlines hours away cost the same O(1) insert and cancel as ones seconds away.
+// Only non-empty buckets are queued by expiration, advancing across idle time does no per-tick work, and entries
+// of a coarse bucket cascade down into finer buckets when it comes due.
+// Deadlines are rounded up to the tick, an entry never fires early and at most one tick late.
+// One timer per key, scheduling a key again replaces its timer. Not thread-safe, callers synchronize.
+public class TimingWheel<K, V> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final Level level0;
+    private final PriorityQueue<Bucket> dueBuckets = new PriorityQueue<>(Comparator.comparingLong(b -> b.expiration));
+    private final Map<K, Timer<K, V>> timers = new HashMap<>();
+    // scheduled at or before the current tick, handed out by the next advance
+    private final List<Timer<K, V>> overdue = new ArrayList<>();
+
+    public TimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("tick must be positive and the wheel needs at least 2 buckets");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.level0 = new Level(tickMs, startMs);
+    }
+
+    public void schedule(K key, long deadlineMs, V value) {
+        cancel(key);
+        Timer<K, V> timer = new Timer<>(key, deadlineMs, value, Math.floorDiv(deadlineMs + tickMs - 1, tickMs) * tickMs);
+        timers.put(key, timer);
+        if (!level0.add(timer)) {
+            overdue.add(timer);
+        }
+    }
+
+    public boolean cancel(K key) {
+        Timer<K, V> timer = timers.remove(key);
+        if (timer == null) {
+            return false;
+        }
+        if (timer.bucket != null) {
+            timer.bucket.timers.remove(timer);
+            timer.bucket = null;
+        } else {
+            overdue.remove(timer);
+        }
+        return true;
+    }
+
+    // removes and returns every timer whose deadline is at or before `nowMs`, in deadline order
+    public List<Timer<K, V>> advance(long nowMs) {
+        List<Timer<K, V>> expired = new ArrayList<>(overdue);
+        overdue.clear();
+        while (!dueBuckets.isEmpty() && dueBuckets.peek().expiration <= nowMs) {
+            Bucket bucket = dueBuckets.poll();
+            level0.advanceClock(bucket.expiration);
+            List<Timer<K, V>> cascading = new ArrayList<>(bucket.timers);
+            bucket.timers.clear();
+            bucket.expiration = -1;
+            for (Timer<K, V> timer : cascading) {
+                timer.bucket = null;
+                if (!level0.add(timer)) {
+                    expired.add(timer);
+                }
+            }
+        }
+        level0.advanceClock(nowMs);
+        for (Timer<K, V> timer : expired) {
+            timers.remove(timer.key);
+        }
+        expired.sort(Comparator.comparingLong(Timer::deadlineMs));
+        return expired;
+    }
+
+    // when advance next has work to do, Long.MAX_VALUE while the wheel is empty
+    public long nextExpiration() {
+        if (!overdue.isEmpty()) {
+            return Long.MIN_VALUE;
+        }
+        return dueBuckets.isEmpty() ? Long.MAX_VALUE : dueBuckets.peek().expiration;
+    }
+
+    public boolean contains(K key) {
+        return timers.containsKey(key);
+    }
+
+    public int size() {
+        return timers.size();
+    }
+
+    public static final class Timer<K, V> {
+        private final K key;
+        private final long deadlineMs;
+        private final V value;
+        private final long slotMs;
+        private TimingWheel<K, V>.Bucket bucket;
+
+        private Timer(K key, long deadlineMs, V value, long slotMs) {
+            this.key = key;
+            this.deadlineMs = deadlineMs;
+            this.value = value;
+            this.slotMs = slotMs;
+        }
+
+        public K key() {
+            return key;
+        }
+
+        public long deadlineMs() {
+            return deadlineMs;
+        }
+
+        public V value() {
+            return value;
+        }
+    }
+
+    private final class Bucket {
+        private final Set<Timer<K, V>> timers = new LinkedHashSet<>();
+        private long expiration = -1;
+    }
+
+    private final class Level {
+        private final long tickMs;
+        private final long intervalMs;
+        private final List<Bucket> buckets = new ArrayList<>();
+        private long currentTime;
+        private Level overflow;
+
+        private Level(long tickMs, long startMs) {
+            this.tickMs = tickMs;
+            this.intervalMs = tickMs * wheelSize;
+            this.currentTime = startMs - Math.floorMod(startMs, tickMs);
+            for (int i = 0; i < wheelSize; i++) {
+                buckets.add(new Bucket());
+            }
+        }
+
+        // false when the timer is already due at this level's clock
+        private boolean add(Timer<K, V> timer) {
+            if (timer.slotMs < currentTime + tickMs) {
+                return false;
+            }
+            if (timer.slotMs >= currentTime + intervalMs) {
+                if (overflow == null) {
+                    overflow = new Level(intervalMs, currentTime);
+                }
+                return overflow.add(timer);
+            }
+            long virtualId = Math.floorDiv(timer.slotMs, tickMs);
+            Bucket bucket = buckets.get((int) Math.floorMod(virtualId, (long) wheelSize));
+            bucket.timers.add(timer);
+            timer.bucket = bucket;
+            long expiration = virtualId * tickMs;
+            if (bucket.expiration != expiration) {
+                // a bucket is only reused once its previous round was flushed, so it is never queued twice
+                bucket.expiration = expiration;
+                dueBuckets.add(bucket);
+            }
+            return true;
+        }
+
+        private void advanceClock(long timeMs) {
+            if (timeMs >= currentTime + tickMs) {
+                currentTime = timeMs - Math.floorMod(timeMs, tickMs);
+                if (overflow != null) {
+                    overflow.advanceClock(currentTime);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.dto.OrderDTO;
+import com.ecommerce.backend.dto.OrderItemRowDTO;
+import com.ecommerce.backend.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Streams orders straight from a database cursor to the response, one row at a time,
+// so memory use does not grow with the number of exported orders
+@Service
+public class OrderExportService {
+
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private static final String CSV_HEADER = "order_id,order_date,status,address_line1,state,pincode,promo_code,"
+            + "original_price,discount_amount,final_price,delivery_date,item_id,product_id,product_title,"
+            + "quantity,price,total_price";
+
+    private final OrderRepository orderRepository;
+    private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public OrderExportService(OrderRepository orderRepository, OrderService orderService,
+                              ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.orderService = orderService;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // one JSON order (with its items) per line
+    public void exportNdjson(String status, LocalDateTime from, LocalDateTime to, OutputStream out) {
+        streamRows(status, from, to, rows -> {
+            Iterator<OrderItemRowDTO> iterator = rows.iterator();
+            OrderDTO current = null;
+            while (iterator.hasNext()) {
+                OrderItemRowDTO row = iterator.next();
+                // rows arrive ordered by order id, so an order is complete once the id changes
+                if (current == null || !current.getId().equals(row.getOrderId())) {
+                    writeJsonLine(current, out);
+                    current = orderService.convertRowToOrderDto(row);
+                }
+                if (row.getItemId() != null) {
+                    current.getOrderItems().add(orderService.convertRowToItemDto(row));
+                }
+            }
+            writeJsonLine(current, out);
+        });
+    }
+
+    // one CSV line per order item, order columns repeated on each line
+    public void exportCsv(String status, LocalDateTime from, LocalDateTime to, OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        streamRows(status, from, to, rows -> {
+            try {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+                Iterator<OrderItemRowDTO> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    writer.write(toCsvLine(iterator.next()));
+                    writer.write('\n');
+                }
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void streamRows(String status, LocalDateTime from, LocalDateTime to,
+                            Consumer<Stream<OrderItemRowDTO>> consumer) {
+        LocalDateTime start = from != null ? from : EARLIEST;
+        LocalDateTime end = to != null ? to : LATEST;
+        // the cursor only streams (instead of buffering the whole result) inside a transaction
+        readOnlyTransaction.executeWithoutResult(tx -> {
+            try (Stream<OrderItemRowDTO> rows = status != null
+                    ? orderRepository.streamRowsByStatusAndOrderDateBetween(status, start, end)
+                    : orderRepository.streamRowsByOrderDateBetween(start, end)) {
+                consumer.accept(rows);
+            }
+        });
+    }
+
+    private void writeJsonLine(OrderDTO order, OutputStream out) {
+        if (order == null) {
+            return;
+        }
+        try {
+            out.write(objectMapper.writeValueAsBytes(order));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String toCsvLine(OrderItemRowDTO row) {
+        return String.join(",",
+                csv(row.getOrderId()), csv(row.getOrderDate()), csv(row.getStatus()), csv(row.getAddressLine1()),
+                csv(row.getState()), csv(row.getPincode()), csv(row.getPromoCode()), csv(row.getOriginalPrice()),
+                csv(row.getDiscountAmount()), csv(row.getFinalPrice()), csv(row.getDeliveryDate()),
+                csv(row.getItemId()), csv(row.getProductId()), csv(row.getProductTitle()),
+                csv(row.getQuantity()), csv(row.getPrice()), csv(row.getTotalPrice()));
+    }
+
+    // quotes a value when it contains a separator, quote or line break (RFC 4180)
+    private String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+}
@@ -0,0 +1,169 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.dto.OrderDTO;
+import com.ecommerce.backend.entity.Order;
+import com.ecommerce.backend.exception.OrderQueueFullException;
+import com.ecommerce.backend.repository.OrderRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Optional group-commit mode for checkout bursts: orders are queued and a single writer
+// saves them in multi-order transactions, so many checkouts share one connection and commit
+@Service
+public class OrderIngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIngestionService.class);
+
+    private final OrderService orderService;
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final BlockingQueue<PendingOrder> queue;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public OrderIngestionService(OrderService orderService, OrderRepository orderRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${orders.ingestion.group-commit.enabled:false}") boolean enabled,
+                                 @Value("${orders.ingestion.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${orders.ingestion.batch-size:100}") int batchSize,
+                                 @Value("${orders.ingestion.linger:5ms}") Duration linger) {
+        this.orderService = orderService;
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.lingerNanos = linger.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // queues the order and completes the future once its batch is committed
+    public CompletableFuture<OrderDTO> submit(OrderDTO orderDTO) {
+        PendingOrder pending = new PendingOrder(orderDTO, new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            throw new OrderQueueFullException("Too many orders in progress, please retry shortly");
+        }
+        return pending.future;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "order-ingestion-writer");
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void writeLoop() {
+        List<PendingOrder> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // linger briefly so orders arriving together share one transaction
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingOrder next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // shutting down: keep draining whatever is already queued
+                queue.drainTo(batch, batchSize - batch.size());
+            }
+
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingOrder> batch) {
+        List<Order> orders = new ArrayList<>(batch.size());
+        List<PendingOrder> accepted = new ArrayList<>(batch.size());
+        for (PendingOrder pending : batch) {
+            try {
+                orders.add(orderService.buildOrder(pending.orderDTO));
+                accepted.add(pending);
+            } catch (RuntimeException e) {
+                // invalid promo code, unknown product or sold out only fails this order
+                pending.future.completeExceptionally(e);
+            }
+        }
+        if (orders.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<Order> savedOrders = transactionTemplate.execute(status -> orderRepository.saveAll(orders));
+            for (int i = 0; i < accepted.size(); i++) {
+                orderService.onOrderCreated(savedOrders.get(i));
+                accepted.get(i).future.complete(orderService.convertToDto(savedOrders.get(i)));
+            }
+        } catch (RuntimeException batchFailure) {
+            // one bad row rolls back the whole batch, so retry one by one to isolate it. Each retry saves an order
+            // built afresh from its DTO, the entities of the rolled-back saveAll may carry ids and other state from
+            // the failed persist; the stock reserved for the first attempt is kept and covers the retry.
+            log.warn("Group commit of {} orders failed, saving them one by one", accepted.size(), batchFailure);
+            for (int i = 0; i < accepted.size(); i++) {
+                PendingOrder pending = accepted.get(i);
+                Order reserved = orders.get(i);
+                Order savedOrder;
+                try {
+                    savedOrder = orderRepository.save(orderService.assembleOrder(pending.orderDTO));
+                } catch (RuntimeException e) {
+                    orderService.releaseStock(reserved);
+                    pending.future.completeExceptionally(e);
+                    continue;
+                }
+                orderService.onOrderCreated(savedOrder);
+                pending.future.complete(orderService.convertToDto(savedOrder));
+            }
+        }
+    }
+
+    private record PendingOrder(OrderDTO orderDTO, CompletableFuture<OrderDTO> future) {
+    }
+}
@@ -5,37 +5,74 @@ import com.ecommerce.backend.entity.Order;
 import com.ecommerce.backend.entity.OrderItem;
 import com.ecommerce.backend.entity.Product;
 import com.ecommerce.backend.entity.PromoCode;
+import com.ecommerce.backend.index.CoPurchaseIndex;
 import com.ecommerce.backend.repository.OrderRepository;
 import com.ecommerce.backend.repository.ProductRepository;
 import com.ecommerce.backend.repository.PromoCodeRepository;
 import com.ecommerce.backend.exception.ResourceNotFoundException;
+import com.ecommerce.backend.scheduling.ShardLeaseManager;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.concurrent.CompletableFuture;
 import java.util.ArrayList;
 
 @Service
+@Timed(value = "service.calls", histogram = true)
 public class OrderService {
 
+    private static final Logger log = LoggerFactory.getLogger(OrderService.class);
+
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
     private final PromoCodeService promoCodeService;
     private final PromoCodeRepository promoCodeRepository;
+    private final SalesAnalyticsService salesAnalyticsService;
+    private final CoPurchaseIndex coPurchaseIndex;
+    private final StockService stockService;
+    private final OrderStatusTimer orderStatusTimer;
+    private final ShardLeaseManager shardLeases;
+    private final int statusUpdateChunkSize;
+
+    // fixed-rate runs get a thread each on the virtual-thread scheduler, a run that outlasts the period must not overlap
+    private final AtomicBoolean statusUpdateRunning = new AtomicBoolean();
 
     public OrderService(OrderRepository orderRepository, ProductRepository productRepository, 
-                       PromoCodeService promoCodeService, PromoCodeRepository promoCodeRepository) {
+                       PromoCodeService promoCodeService, PromoCodeRepository promoCodeRepository,
+                       SalesAnalyticsService salesAnalyticsService, CoPurchaseIndex coPurchaseIndex,
+                       StockService stockService, OrderStatusTimer orderStatusTimer,
+                       ShardLeaseManager shardLeases,
+                       @Value("${orders.status-update.chunk-size:5000}") int statusUpdateChunkSize) {
         this.orderRepository = orderRepository;
         this.productRepository = productRepository;
         this.promoCodeService = promoCodeService;
         this.promoCodeRepository = promoCodeRepository;
+        this.salesAnalyticsService = salesAnalyticsService;
+        this.coPurchaseIndex = coPurchaseIndex;
+        this.stockService = stockService;
+        this.orderStatusTimer = orderStatusTimer;
+        this.shardLeases = shardLeases;
+        this.statusUpdateChunkSize = statusUpdateChunkSize;
     }
 
-    private OrderDTO convertToDto(Order order) {
+    OrderDTO convertToDto(Order order) {
         List<OrderItemDTO> orderItemDTOs = order.getOrderItems().stream()
                 .map(item -> new OrderItemDTO(
                         item.getId(),
@@ -65,7 +102,92 @@ public class OrderService {
         );
     }
 
+    // groups the flat join rows (ordered by order id) back into one OrderDTO per order
+    private List<OrderDTO> convertRowsToDtos(List<OrderItemRowDTO> rows) {
+        Map<Long, OrderDTO> orders = new LinkedHashMap<>();
+        for (OrderItemRowDTO row : rows) {
+            OrderDTO orderDTO = orders.computeIfAbsent(row.getOrderId(), orderId -> convertRowToOrderDto(row));
+            if (row.getItemId() != null) {
+                orderDTO.getOrderItems().add(convertRowToItemDto(row));
+            }
+        }
+        return new ArrayList<>(orders.values());
+    }
+
+    // order part of a join row, with an empty item list to fill
+    OrderDTO convertRowToOrderDto(OrderItemRowDTO row) {
+        return new OrderDTO(
+                row.getOrderId(),
+                row.getAddressLine1(),
+                row.getState(),
+                row.getPincode(),
+                null, // cartItems not needed in response
+                row.getOriginalPrice(),
+                row.getPromoCode(),
+                row.getDiscountAmount(),
+                row.getFinalPrice(),
+                row.getStatus(),
+                row.getOrderDate(),
+                row.getDeliveryDate(),
+                new ArrayList<>()
+        );
+    }
+
+    OrderItemDTO convertRowToItemDto(OrderItemRowDTO row) {
+        return new OrderItemDTO(
+                row.getItemId(),
+                row.getProductId(),
+                row.getProductTitle(),
+                row.getProductImage(),
+                row.getQuantity(),
+                row.getPrice(),
+                row.getTotalPrice()
+        );
+    }
+
     public OrderDTO createOrder(OrderDTO orderDTO) {
+        Order order = buildOrder(orderDTO);
+
+        // Save order, handing the reserved stock back if that fails
+        Order savedOrder;
+        try {
+            savedOrder = orderRepository.save(order);
+        } catch (RuntimeException e) {
+            stockService.release(order);
+            throw e;
+        }
+        onOrderCreated(savedOrder);
+        
+        // Auto delivery will be handled by scheduled task
+        
+        return convertToDto(savedOrder);
+    }
+
+    // follow-up work once an order is committed, shared with the group-commit ingestion path
+    void onOrderCreated(Order savedOrder) {
+        orderStatusTimer.track(savedOrder);
+        salesAnalyticsService.recordOrder(savedOrder, 1);
+        coPurchaseIndex.recordOrder(savedOrder.getOrderItems().stream()
+                .map(item -> item.getProduct().getId())
+                .collect(Collectors.toList()));
+    }
+
+    // hands back the stock reserved by buildOrder for an order that could not be saved
+    void releaseStock(Order order) {
+        stockService.release(order);
+    }
+
+    // validates the promo code and cart, builds the unsaved order with its items and reserves its stock
+    // callers must release the stock again if the order is not saved
+    Order buildOrder(OrderDTO orderDTO) {
+        Order order = assembleOrder(orderDTO);
+        // last step, so a validation failure while assembling never leaves stock reserved
+        stockService.reserve(order);
+        return order;
+    }
+
+    // validates the promo code and cart and builds the unsaved order with its items, reserves nothing
+    Order assembleOrder(OrderDTO orderDTO) {
         // Create new order
         Order order = new Order();
         order.setAddressLine1(orderDTO.getAddressLine1());
@@ -78,7 +200,7 @@ public class OrderService {
         Double discountAmount = 0.0;
         if (orderDTO.getPromoCode() != null && !orderDTO.getPromoCode().trim().isEmpty()) {
             promoCode = promoCodeService.validatePromoCode(orderDTO.getPromoCode());
-            discountAmount = promoCodeService.calculateDiscount(orderDTO.getPromoCode(), orderDTO.getOriginalPrice());
+            discountAmount = promoCodeService.calculateDiscount(promoCode, orderDTO.getOriginalPrice());
         }
         order.setPromoCode(promoCode);
         order.setDiscountAmount(discountAmount);
@@ -87,11 +209,20 @@ public class OrderService {
         order.setStatus("PENDING");
         order.setOrderDate(LocalDateTime.now());
 
+        // Resolve all cart products from the entity cache, the ones not cached with one query
+        Set<Long> productIds = orderDTO.getCartItems().stream()
+                .map(CartItemDTO::getProductId)
+                .collect(Collectors.toSet());
+        Map<Long, Product> productsById = productRepository.findAllByIdCached(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
         // Create order items
         List<OrderItem> orderItems = new ArrayList<>();
         for (CartItemDTO cartItem : orderDTO.getCartItems()) {
-            Product product = productRepository.findById(cartItem.getProductId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + cartItem.getProductId()));
+            Product product = productsById.get(cartItem.getProductId());
+            if (product == null) {
+                throw new ResourceNotFoundException("Product not found with id: " + cartItem.getProductId());
+            }
 
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
@@ -103,52 +234,104 @@ public class OrderService {
             orderItems.add(orderItem);
         }
         order.setOrderItems(orderItems);
-
-        // Save order
-        Order savedOrder = orderRepository.save(order);
-        
-        // Auto delivery will be handled by scheduled task
-        
-        return convertToDto(savedOrder);
+        return order;
     }
     
 
 
+    @Transactional(readOnly = true)
     public OrderDTO getOrderById(Long id) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
-        return convertToDto(order);
+        List<OrderDTO> orders = convertRowsToDtos(orderRepository.findRowsById(id));
+        if (orders.isEmpty()) {
+            throw new ResourceNotFoundException("Order not found with id: " + id);
+        }
+        return orders.get(0);
     }
 
+    @Transactional(readOnly = true)
     public List<OrderDTO> getAllOrders() {
-        return orderRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertRowsToDtos(orderRepository.findAllRows());
     }
 
+    @Transactional(readOnly = true)
+    public CursorPageDTO<OrderDTO> getOrdersPage(Long after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // fetch one extra row to know whether another page exists
+        List<Long> orderIds = orderRepository.findIdsAfter(
+                after != null ? after : 0L, PageRequest.of(0, pageSize + 1));
+
+        Long nextCursor = null;
+        if (orderIds.size() > pageSize) {
+            orderIds = orderIds.subList(0, pageSize);
+            nextCursor = orderIds.get(pageSize - 1);
+        }
+
+        List<OrderDTO> items = orderIds.isEmpty()
+                ? new ArrayList<>()
+                : convertRowsToDtos(orderRepository.findRowsByIdIn(orderIds));
+        return new CursorPageDTO<>(items, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
     public List<OrderDTO> getOrdersByStatus(String status) {
-        return orderRepository.findByStatus(status).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertRowsToDtos(orderRepository.findRowsByStatus(status));
     }
 
     public OrderDTO updateOrderStatus(Long id, String status) {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
+        boolean wasCancelled = "CANCELLED".equals(order.getStatus());
+        boolean isCancelled = "CANCELLED".equals(status);
+        if (isCancelled && "DELIVERED".equals(order.getStatus())) {
+            throw new RuntimeException("Cannot cancel delivered order");
+        }
+        boolean releasesStock = !wasCancelled && isCancelled && inWarehouse(order);
+        boolean reservesStock = wasCancelled && !isCancelled;
+        if (reservesStock) {
+            stockService.reserve(order); // reviving a cancelled order needs its stock back
+        }
         
         order.setStatus(status);
         if ("DELIVERED".equals(status)) {
             order.setDeliveryDate(LocalDateTime.now());
         }
-        Order updatedOrder = orderRepository.save(order);
+        Order updatedOrder;
+        try {
+            updatedOrder = orderRepository.save(order);
+        } catch (RuntimeException e) {
+            if (reservesStock) {
+                stockService.release(order);
+            }
+            throw e;
+        }
+
+        // cancelled orders don't count towards sales, so moving in or out of CANCELLED adjusts the rollups
+        if (wasCancelled != isCancelled) {
+            salesAnalyticsService.recordOrder(updatedOrder, isCancelled ? -1 : 1);
+        }
+        if (releasesStock) {
+            stockService.release(updatedOrder);
+        }
+        orderStatusTimer.track(updatedOrder);
         return convertToDto(updatedOrder);
     }
 
     public void deleteOrder(Long id) {
-        if (!orderRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Order not found with id: " + id);
+        Order order = orderRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
+        orderRepository.delete(order);
+        orderStatusTimer.forget(id);
+        if (!"CANCELLED".equals(order.getStatus())) {
+            salesAnalyticsService.recordOrder(order, -1);
+            if (inWarehouse(order)) {
+                stockService.release(order);
+            }
         }
-        orderRepository.deleteById(id);
+    }
+
+    // only a pending order's units are still in the warehouse; once shipped they come back through a restock
+    private boolean inWarehouse(Order order) {
+        return "PENDING".equals(order.getStatus());
     }
     
     // Cancel order functionality
@@ -160,46 +343,74 @@ public class OrderService {
             throw new RuntimeException("Cannot cancel delivered order");
         }
         
+        boolean wasCancelled = "CANCELLED".equals(order.getStatus());
+        boolean releasesStock = inWarehouse(order);
         order.setStatus("CANCELLED");
         Order updatedOrder = orderRepository.save(order);
+        orderStatusTimer.forget(id);
+        if (!wasCancelled) {
+            salesAnalyticsService.recordOrder(updatedOrder, -1);
+        }
+        if (releasesStock) {
+            stockService.release(updatedOrder);
+        }
         return convertToDto(updatedOrder);
     }
     
     // Progressive status updates every 2 hours: PENDING → SHIPPED → OUT_FOR_DELIVERY → DELIVERED
-    @Scheduled(fixedRate = 60000) // Check every 60 seconds
-    // @Scheduled(fixedRate = 2000) // Check every 60 seconds
+    // OrderStatusTimer fires each transition on time, this sweep only catches orders it never saw
+    // With several instances each node only sweeps the order shards it holds a lease on (ShardLeaseManager)
+    // Each transition is a bulk UPDATE, chunked by id range so no single transaction spans the whole table
+    @Scheduled(fixedRateString = "${orders.status-update.sweep-interval:15m}")
     public void updateOrderStatuses() {
+        if (!statusUpdateRunning.compareAndSet(false, true)) {
+            log.warn("Order status update skipped, the previous run is still in progress");
+            return;
+        }
+        try {
+            advanceOrderStatuses();
+        } finally {
+            statusUpdateRunning.set(false);
+        }
+    }
+
+    private void advanceOrderStatuses() {
+        Set<Integer> shards = shardLeases.ownedShards();
+        if (shards.isEmpty()) {
+            log.debug("Order status update skipped, this node holds no order shards");
+            return;
+        }
+        int shardCount = shardLeases.shardCount();
+        long startNanos = System.nanoTime();
         LocalDateTime now = LocalDateTime.now();
-        
+        long maxId = orderRepository.findMaxId();
+
         // PENDING → SHIPPED (after 2 hours)
-        LocalDateTime twoHoursAgo = now.minusHours(2);
-        // LocalDateTime twoHoursAgo = now.minusSeconds(20);
-        List<Order> pendingOrders = orderRepository.findByStatusAndOrderDateBefore("PENDING", twoHoursAgo);
-        for (Order order : pendingOrders) {
-            order.setStatus("SHIPPED");
-            orderRepository.save(order);
-            System.out.println("Order " + order.getId() + " moved to SHIPPED");
+        LocalDateTime twoHoursAgo = orderStatusTimer.dueCutoff("PENDING", now);
+        int shipped = 0;
+        for (long fromId = 0; fromId < maxId; fromId += statusUpdateChunkSize) {
+            shipped += orderRepository.updateStatusInRange("PENDING", "SHIPPED", twoHoursAgo,
+                    fromId, fromId + statusUpdateChunkSize, shardCount, shards);
         }
-        
+
         // SHIPPED → OUT_FOR_DELIVERY (after 4 hours total)
-        LocalDateTime fourHoursAgo = now.minusHours(4);
-        // LocalDateTime fourHoursAgo = now.minusSeconds(30);
-        List<Order> shippedOrders = orderRepository.findByStatusAndOrderDateBefore("SHIPPED", fourHoursAgo);
-        for (Order order : shippedOrders) {
-            order.setStatus("OUT_FOR_DELIVERY");
-            orderRepository.save(order);
-            System.out.println("Order " + order.getId() + " moved to OUT_FOR_DELIVERY");
+        LocalDateTime fourHoursAgo = orderStatusTimer.dueCutoff("SHIPPED", now);
+        int outForDelivery = 0;
+        for (long fromId = 0; fromId < maxId; fromId += statusUpdateChunkSize) {
+            outForDelivery += orderRepository.updateStatusInRange("SHIPPED", "OUT_FOR_DELIVERY", fourHoursAgo,
+                    fromId, fromId + statusUpdateChunkSize, shardCount, shards);
         }
-        
+
         // OUT_FOR_DELIVERY → DELIVERED (after 6 hours total)
-        LocalDateTime sixHoursAgo = now.minusHours(6);
-        // LocalDateTime sixHoursAgo = now.minusSeconds(40);
-        List<Order> outForDeliveryOrders = orderRepository.findByStatusAndOrderDateBefore("OUT_FOR_DELIVERY", sixHoursAgo);
-        for (Order order : outForDeliveryOrders) {
-            order.setStatus("DELIVERED");
-            order.setDeliveryDate(LocalDateTime.now());
-            orderRepository.save(order);
-            System.out.println("Order " + order.getId() + " moved to DELIVERED");
+        LocalDateTime sixHoursAgo = orderStatusTimer.dueCutoff("OUT_FOR_DELIVERY", now);
+        int delivered = 0;
+        for (long fromId = 0; fromId < maxId; fromId += statusUpdateChunkSize) {
+            delivered += orderRepository.markDeliveredInRange("OUT_FOR_DELIVERY", now, sixHoursAgo,
+                    fromId, fromId + statusUpdateChunkSize, shardCount, shards);
         }
+
+        long durationMs = (System.nanoTime() - startNanos) / 1_000_000;
+        log.info("Order status update: {} SHIPPED, {} OUT_FOR_DELIVERY, {} DELIVERED for {} of {} shards in {} ms",
+                shipped, outForDelivery, delivered, shards.size(), shardCount, durationMs);
     }
-}
\ No newline at end of file
+}
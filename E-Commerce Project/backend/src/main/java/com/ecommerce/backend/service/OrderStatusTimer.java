@@ -0,0 +1,222 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.entity.Order;
+import com.ecommerce.backend.repository.OrderRepository;
+import com.ecommerce.backend.scheduling.ShardLeaseManager;
+import com.ecommerce.backend.scheduling.TimingWheel;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Drives PENDING → SHIPPED → OUT_FOR_DELIVERY → DELIVERED from a timing wheel keyed by each order's next
+// transition deadline instead of rescanning all in-flight orders on every poll. A single thread sleeps until
+// the earliest deadline, fires everything due as one bulk UPDATE per transition and schedules the follow-up.
+// Only orders in the shards this node holds a lease on are tracked and fired; the wheel is seeded from the DB
+// whenever a shard is acquired (OrderStatusTimerLoader) and fed by OrderService.
+// Every UPDATE is conditional on the status the timer expects, so a timer that lost a race with a manual
+// status change or a cancel is a no-op rather than a wrong transition.
+// Progress is exported as orders.status.timer.* meters (fired and transitioned orders, batch durations, timers
+// scheduled) rather than logged per batch.
+@Service
+public class OrderStatusTimer {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStatusTimer.class);
+
+    private final OrderRepository orderRepository;
+    private final ShardLeaseManager shardLeases;
+    private final int chunkSize;
+    private final long shippedAfterMs;
+    private final long outForDeliveryAfterMs;
+    private final long deliveredAfterMs;
+
+    private final TimingWheel<Long, String> wheel;
+    private final Thread driver;
+    private volatile boolean running = true;
+
+    private final AtomicLong fired = new AtomicLong();
+    private final AtomicLong transitioned = new AtomicLong();
+    private final Timer batchTimer;
+
+    public OrderStatusTimer(OrderRepository orderRepository, ShardLeaseManager shardLeases, MeterRegistry meterRegistry,
+                            @Value("${orders.status-update.chunk-size:5000}") int chunkSize,
+                            @Value("${orders.status-timer.tick:1s}") Duration tick,
+                            @Value("${orders.status-timer.wheel-size:64}") int wheelSize,
+                            @Value("${orders.status.shipped-after:2h}") Duration shippedAfter,
+                            @Value("${orders.status.out-for-delivery-after:4h}") Duration outForDeliveryAfter,
+                            @Value("${orders.status.delivered-after:6h}") Duration deliveredAfter) {
+        this.orderRepository = orderRepository;
+        this.shardLeases = shardLeases;
+        this.chunkSize = chunkSize;
+        this.shippedAfterMs = shippedAfter.toMillis();
+        this.outForDeliveryAfterMs = outForDeliveryAfter.toMillis();
+        this.deliveredAfterMs = deliveredAfter.toMillis();
+        this.wheel = new TimingWheel<>(tick.toMillis(), wheelSize, System.currentTimeMillis());
+        FunctionCounter.builder("orders.status.timer.fired", fired, AtomicLong::get)
+                .description("order timers that came due on this node")
+                .register(meterRegistry);
+        FunctionCounter.builder("orders.status.timer.transitioned", transitioned, AtomicLong::get)
+                .description("orders moved to their next status by the timer")
+                .register(meterRegistry);
+        Gauge.builder("orders.status.timer.scheduled", this, OrderStatusTimer::scheduledCount)
+                .description("orders waiting on a status timer on this node")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("orders.status.timer.batch")
+                .description("time to fire one batch of due order timers")
+                .register(meterRegistry);
+        this.driver = new Thread(this::run, "order-status-timer");
+        this.driver.setDaemon(true);
+        this.driver.start();
+    }
+
+    // (re)schedules the order's next transition from its current status, terminal statuses drop its timer
+    // orders in shards held by another node are left to that node
+    public void track(Order order) {
+        track(order.getId(), order.getStatus(), order.getOrderDate());
+    }
+
+    public void track(Long orderId, String status, LocalDateTime orderDate) {
+        Long offsetMs = transitionOffset(status);
+        synchronized (wheel) {
+            if (offsetMs == null || !shardLeases.owns(orderId)) {
+                wheel.cancel(orderId);
+                return;
+            }
+            long deadline = orderDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() + offsetMs;
+            long previousNext = wheel.nextExpiration();
+            wheel.schedule(orderId, deadline, status);
+            if (wheel.nextExpiration() < previousNext) {
+                wheel.notifyAll(); // the driver is sleeping towards a later deadline
+            }
+        }
+    }
+
+    public void forget(Long orderId) {
+        synchronized (wheel) {
+            wheel.cancel(orderId);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        synchronized (wheel) {
+            long next = wheel.nextExpiration();
+            return Map.of(
+                    "scheduled", wheel.size(),
+                    "fired", fired.get(),
+                    "transitioned", transitioned.get(),
+                    "nextDueInMs", next == Long.MAX_VALUE ? -1 : Math.max(0, next - System.currentTimeMillis()),
+                    "nodeId", shardLeases.nodeId(),
+                    "ownedShards", shardLeases.ownedShards()
+            );
+        }
+    }
+
+    // orders in this status placed before the returned time are due for their next transition
+    public LocalDateTime dueCutoff(String status, LocalDateTime now) {
+        return now.minus(Duration.ofMillis(transitionOffset(status)));
+    }
+
+    // time after the order date at which an order in this status moves on, null for terminal statuses
+    private Long transitionOffset(String status) {
+        return switch (status) {
+            case "PENDING" -> shippedAfterMs;
+            case "SHIPPED" -> outForDeliveryAfterMs;
+            case "OUT_FOR_DELIVERY" -> deliveredAfterMs;
+            default -> null;
+        };
+    }
+
+    private void run() {
+        while (running) {
+            List<TimingWheel.Timer<Long, String>> due;
+            synchronized (wheel) {
+                long now = System.currentTimeMillis();
+                long next = wheel.nextExpiration();
+                if (next > now) {
+                    try {
+                        wheel.wait(next == Long.MAX_VALUE ? 0 : next - now);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    continue;
+                }
+                due = wheel.advance(now);
+            }
+            try {
+                fire(due);
+            } catch (RuntimeException e) {
+                // the sweep in OrderService picks these orders up, the timer must keep running
+                log.warn("Order status timer batch failed", e);
+            }
+        }
+    }
+
+    private void fire(List<TimingWheel.Timer<Long, String>> due) {
+        // a shard lost since its timers were scheduled belongs to another node now
+        due = due.stream().filter(timer -> shardLeases.owns(timer.key())).toList();
+        if (due.isEmpty()) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        Map<String, List<Long>> idsByStatus = new LinkedHashMap<>();
+        for (TimingWheel.Timer<Long, String> timer : due) {
+            idsByStatus.computeIfAbsent(timer.value(), status -> new ArrayList<>()).add(timer.key());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int updated = 0;
+        for (Map.Entry<String, List<Long>> entry : idsByStatus.entrySet()) {
+            String fromStatus = entry.getKey();
+            List<Long> ids = entry.getValue();
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                updated += switch (fromStatus) {
+                    case "PENDING" -> orderRepository.updateStatusForIds("PENDING", "SHIPPED", chunk);
+                    case "SHIPPED" -> orderRepository.updateStatusForIds("SHIPPED", "OUT_FOR_DELIVERY", chunk);
+                    default -> orderRepository.markDeliveredForIds(fromStatus, now, chunk);
+                };
+            }
+        }
+        // follow-up transitions are measured from the order date, like the sweep;
+        // an order tracked again while this batch ran already has its newer timer
+        synchronized (wheel) {
+            for (TimingWheel.Timer<Long, String> timer : due) {
+                String next = "PENDING".equals(timer.value()) ? "SHIPPED"
+                        : "SHIPPED".equals(timer.value()) ? "OUT_FOR_DELIVERY" : null;
+                if (next != null && !wheel.contains(timer.key())) {
+                    long orderDateMs = timer.deadlineMs() - transitionOffset(timer.value());
+                    wheel.schedule(timer.key(), orderDateMs + transitionOffset(next), next);
+                }
+            }
+        }
+        fired.addAndGet(due.size());
+        transitioned.addAndGet(updated);
+        batchTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private int scheduledCount() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        driver.interrupt();
+    }
+}
@@ -0,0 +1,353 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.dto.ImportRowErrorDTO;
+import com.ecommerce.backend.dto.ProductDTO;
+import com.ecommerce.backend.dto.ProductImportResultDTO;
+import com.ecommerce.backend.dto.RatingDTO;
+import com.ecommerce.backend.entity.Product;
+import com.ecommerce.backend.exception.BadRequestException;
+import com.ecommerce.backend.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Bulk product import: the request body is parsed one row at a time, so memory use depends on the
+// batch size and not on the file size. Each batch is written in its own transaction; a batch that
+// fails is retried row by row so one bad row only costs itself.
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final List<String> CSV_COLUMNS = List.of(
+            "title", "description", "price", "category", "image", "rating_rate", "rating_count", "stock");
+    private static final List<String> REQUIRED_CSV_COLUMNS = List.of("title", "description", "price", "category");
+
+    private final ProductRepository productRepository;
+    private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public ProductImportService(ProductRepository productRepository, ProductService productService,
+                                ObjectMapper objectMapper, Validator validator, EntityManager entityManager,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${products.import.batch-size:1000}") int batchSize) {
+        this.productRepository = productRepository;
+        this.productService = productService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    // body is a JSON array of ProductDTO objects, each may carry an optional "stock"
+    public ProductImportResultDTO importJson(InputStream body) {
+        ImportRun run = new ImportRun();
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new BadRequestException("expected a JSON array of products");
+            }
+            long row = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    return run.finish("body ended before the closing ] of the array");
+                }
+                row++;
+                // reading the element as a tree first keeps the parser in place when it does not map to a product
+                JsonNode node = parser.readValueAsTree();
+                ProductDTO productDTO;
+                try {
+                    productDTO = objectMapper.treeToValue(node, ProductDTO.class);
+                } catch (JsonProcessingException e) {
+                    run.reject(row, e.getOriginalMessage());
+                    continue;
+                }
+                JsonNode stock = node.get("stock");
+                if (stock != null && !stock.isNull() && !(stock.isIntegralNumber() && stock.canConvertToInt())) {
+                    run.reject(row, "stock: must be a whole number");
+                    continue;
+                }
+                run.accept(row, productDTO, stock != null && !stock.isNull() ? stock.intValue() : null);
+            }
+        } catch (JsonProcessingException e) {
+            return run.finish("invalid JSON at line " + e.getLocation().getLineNr() + ": " + e.getOriginalMessage());
+        } catch (IOException e) {
+            return run.finish("could not read request body: " + e.getMessage());
+        }
+        return run.finish(null);
+    }
+
+    // body is CSV with a header row naming any of CSV_COLUMNS, in any order
+    public ProductImportResultDTO importCsv(InputStream body) {
+        ImportRun run = new ImportRun();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 1 << 16)) {
+            List<String> header = readCsvRecord(reader);
+            if (header == null) {
+                throw new BadRequestException("CSV body is empty, expected a header row");
+            }
+            Map<String, Integer> columns = csvColumns(header);
+
+            long row = 0;
+            List<String> record;
+            while ((record = readCsvRecord(reader)) != null) {
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue; // blank line
+                }
+                row++;
+                if (record.size() != header.size()) {
+                    run.reject(row, "expected " + header.size() + " fields but found " + record.size());
+                    continue;
+                }
+                try {
+                    Integer stock = parseInteger(record, columns, "stock");
+                    run.accept(row, csvToDto(record, columns), stock);
+                } catch (NumberFormatException e) {
+                    run.reject(row, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            return run.finish("could not read request body: " + e.getMessage());
+        }
+        return run.finish(null);
+    }
+
+    private Map<String, Integer> csvColumns(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim().toLowerCase();
+            if (!CSV_COLUMNS.contains(name)) {
+                throw new BadRequestException("unknown CSV column: " + name + ", expected any of " + CSV_COLUMNS);
+            }
+            columns.put(name, i);
+        }
+        for (String required : REQUIRED_CSV_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                throw new BadRequestException("CSV header is missing the " + required + " column");
+            }
+        }
+        return columns;
+    }
+
+    private ProductDTO csvToDto(List<String> record, Map<String, Integer> columns) {
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setTitle(text(record, columns, "title"));
+        productDTO.setDescription(text(record, columns, "description"));
+        productDTO.setCategory(text(record, columns, "category"));
+        productDTO.setImage(text(record, columns, "image"));
+        String price = text(record, columns, "price");
+        productDTO.setPrice(price != null ? parseDouble("price", price) : null);
+
+        String rate = text(record, columns, "rating_rate");
+        Integer count = parseInteger(record, columns, "rating_count");
+        if (rate != null || count != null) {
+            productDTO.setRating(new RatingDTO(rate != null ? parseDouble("rating_rate", rate) : null, count));
+        }
+        return productDTO;
+    }
+
+    // empty cells and missing columns both read as null
+    private String text(List<String> record, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private Integer parseInteger(List<String> record, Map<String, Integer> columns, String column) {
+        String value = text(record, columns, column);
+        try {
+            return value != null ? Integer.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException(column + ": not a whole number: " + value);
+        }
+    }
+
+    private Double parseDouble(String column, String value) {
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException(column + ": not a number: " + value);
+        }
+    }
+
+    // one RFC 4180 record: quoted fields may contain separators, doubled quotes and line breaks; null at end of input
+    static List<String> readCsvRecord(BufferedReader reader) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean readAnything = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            readAnything = true;
+            if (quoted) {
+                if (c != '"') {
+                    field.append((char) c);
+                    continue;
+                }
+                reader.mark(1);
+                int next = reader.read();
+                if (next == '"') {
+                    field.append('"');
+                } else {
+                    quoted = false;
+                    if (next != -1) {
+                        reader.reset();
+                    }
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+        if (!readAnything) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // state of a single import: the open batch, counters and the reported errors
+    private class ImportRun {
+        private final long startNanos = System.nanoTime();
+        private final List<PendingRow> batch = new ArrayList<>(batchSize);
+        private final List<ImportRowErrorDTO> errors = new ArrayList<>();
+        private long rowsRead;
+        private long imported;
+        private long failed;
+
+        void accept(long row, ProductDTO productDTO, Integer stock) {
+            rowsRead++;
+            Set<ConstraintViolation<ProductDTO>> violations = validator.validate(productDTO);
+            if (!violations.isEmpty()) {
+                failed++;
+                addError(row, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+            if (stock != null && stock < 0) {
+                reject(row, "stock: must be non-negative");
+                return;
+            }
+
+            batch.add(new PendingRow(row, productDTO, stock));
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long row, String message) {
+            rowsRead++;
+            failed++;
+            addError(row, message);
+        }
+
+        ProductImportResultDTO finish(String abortedReason) {
+            flush();
+            long elapsedNanos = System.nanoTime() - startNanos;
+            double rowsPerSecond = rowsRead * 1_000_000_000.0 / Math.max(elapsedNanos, 1);
+            log.info("Product import: {} imported, {} failed in {} ms ({} rows/s){}", imported, failed,
+                    elapsedNanos / 1_000_000, Math.round(rowsPerSecond),
+                    abortedReason != null ? ", aborted: " + abortedReason : "");
+            return new ProductImportResultDTO(rowsRead, imported, failed, errors, abortedReason,
+                    elapsedNanos / 1_000_000, rowsPerSecond);
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<Product> saved;
+            try {
+                List<Product> products = batch.stream().map(this::toEntity).toList();
+                saved = transactionTemplate.execute(status -> productRepository.saveAll(products));
+            } catch (RuntimeException batchFailure) {
+                // one bad row rolls back the whole batch, so retry one by one to isolate it; the retry starts from
+                // new entities, the rolled-back ones may carry ids and other state from the failed persist
+                log.debug("Product import batch of {} rows failed, saving them one by one", batch.size(), batchFailure);
+                entityManager.clear();
+                saved = new ArrayList<>(batch.size());
+                for (PendingRow pending : batch) {
+                    Product product = toEntity(pending);
+                    try {
+                        saved.add(transactionTemplate.execute(status -> productRepository.save(product)));
+                    } catch (RuntimeException e) {
+                        failed++;
+                        addError(pending.row(), "could not be saved: " + rootMessage(e));
+                        entityManager.clear();
+                    }
+                }
+            }
+            imported += saved.size();
+            productService.onProductsImported(saved);
+
+            batch.clear();
+            // with open-in-view the request keeps one persistence context, drop the saved entities from it
+            entityManager.clear();
+        }
+
+        private Product toEntity(PendingRow pending) {
+            Product product = productService.convertToEntity(pending.productDTO());
+            product.setId(null); // imports always create new products
+            product.setStock(pending.stock());
+            return product;
+        }
+
+        private void addError(long row, String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportRowErrorDTO(row, message));
+            }
+        }
+
+        private String rootMessage(Throwable e) {
+            Throwable root = e;
+            while (root.getCause() != null) {
+                root = root.getCause();
+            }
+            return root.getMessage();
+        }
+    }
+
+    // a validated row waiting for its batch to be written
+    private record PendingRow(long row, ProductDTO productDTO, Integer stock) {
+    }
+}
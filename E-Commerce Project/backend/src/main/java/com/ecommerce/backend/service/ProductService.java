@@ -1,27 +1,90 @@
 package com.ecommerce.backend.service;
 
+import com.ecommerce.backend.cache.ProductCatalogCache;
+import com.ecommerce.backend.dto.CursorPageDTO;
+import com.ecommerce.backend.dto.PriceBucketCountDTO;
+import com.ecommerce.backend.dto.ProductBrowseDTO;
 import com.ecommerce.backend.dto.ProductDTO;
 import com.ecommerce.backend.dto.RatingDTO;
 import com.ecommerce.backend.entity.Product;
+import com.ecommerce.backend.index.CoPurchaseIndex;
+import com.ecommerce.backend.index.ExistenceFilter;
+import com.ecommerce.backend.index.ProductSearchIndex;
 import com.ecommerce.backend.repository.ProductRepository;
+import com.ecommerce.backend.exception.BadRequestException;
 import com.ecommerce.backend.exception.ResourceNotFoundException;
+import jakarta.persistence.Tuple;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 @Service // indicates that this class is a "service" component
+@Timed(value = "service.calls", histogram = true) // one timer per public method, tagged with class and method
 public class ProductService {
 
+    private static final int MAX_PAGE_SIZE = 100; // upper bound for ?limit= on paged listings
+    private static final int RELATED_PRODUCTS_LIMIT = 4;
+    private static final int MAX_SEARCH_RESULTS = 50;
+
+    // lower bounds of the price facet buckets, must match ProductRepository.PRICE_BUCKET
+    static final double[] PRICE_BUCKET_BOUNDS = {0, 1000, 5000, 20000, 50000, 100000};
+
+    // fields a client may ask for with ?fields=, mapped to the product columns each one needs
+    private static final Map<String, List<String>> SPARSE_FIELDS = Map.of(
+            "id", List.of("id"),
+            "title", List.of("title"),
+            "description", List.of("description"),
+            "price", List.of("price"),
+            "category", List.of("category"),
+            "image", List.of("image"),
+            "rating", List.of("ratingRate", "ratingCount")
+    );
+
+    // fallback ranking for related products: best rated first, ties broken by number of ratings
+    private static final Comparator<ProductDTO> BY_RATING = Comparator
+            .comparing((ProductDTO product) -> product.getRating() != null ? product.getRating().getRate() : 0.0)
+            .thenComparing(product -> product.getRating() != null ? product.getRating().getCount() : 0)
+            .reversed();
+
+    // start time of this instance, part of the catalog version so tags handed out before a restart never match
+    private final long catalogEpoch = System.currentTimeMillis();
+
     private final ProductRepository productRepository;
+    private final ProductCatalogCache catalogCache;
+    private final CoPurchaseIndex coPurchaseIndex;
+    private final ProductSearchIndex searchIndex;
+    private final StockService stockService;
+    private final ExistenceFilter productIdFilter;
 
-    // constructor injection: spring automatically injects ProductRepository
-    public ProductService(ProductRepository productRepository) {
+    // constructor injection: spring automatically injects ProductRepository and the in-memory caches and indexes
+    public ProductService(ProductRepository productRepository, ProductCatalogCache catalogCache,
+                          CoPurchaseIndex coPurchaseIndex, ProductSearchIndex searchIndex, StockService stockService,
+                          @Qualifier("productIdFilter") ExistenceFilter productIdFilter) {
         this.productRepository = productRepository;
+        this.catalogCache = catalogCache;
+        this.coPurchaseIndex = coPurchaseIndex;
+        this.searchIndex = searchIndex;
+        this.stockService = stockService;
+        this.productIdFilter = productIdFilter;
     }
 
     // method to convert product entity to product dto
-    private ProductDTO convertToDto(Product product) {
+    ProductDTO convertToDto(Product product) {
         RatingDTO ratingDTO = null;
         if (product.getRatingRate() != null && product.getRatingCount() != null) {
             ratingDTO = new RatingDTO(product.getRatingRate(), product.getRatingCount());
@@ -39,7 +102,7 @@ public class ProductService {
     }
 
     // method to convert product dto to product entity
-    private Product convertToEntity(ProductDTO productDTO) {
+    Product convertToEntity(ProductDTO productDTO) {
         Product product = new Product();
         product.setId(productDTO.getId()); // id might be present for updates
         product.setTitle(productDTO.getTitle());
@@ -60,34 +123,184 @@ public class ProductService {
     public ProductDTO createProduct(ProductDTO productDTO) {
         Product product = convertToEntity(productDTO);
         Product savedProduct = productRepository.save(product);
+        productIdFilter.add(savedProduct.getId());
+        catalogCache.invalidate(savedProduct.getId(), savedProduct.getCategory());
+        searchIndex.index(savedProduct.getId(), savedProduct.getTitle(), savedProduct.getCategory(),
+                savedProduct.getDescription());
         return convertToDto(savedProduct);
     }
 
+    // catalog upkeep after ProductImportService committed a batch of new products
+    void onProductsImported(List<Product> products) {
+        String[] categories = products.stream().map(Product::getCategory).distinct().toArray(String[]::new);
+        catalogCache.invalidate(null, categories);
+        for (Product product : products) {
+            productIdFilter.add(product.getId());
+            searchIndex.index(product.getId(), product.getTitle(), product.getCategory(), product.getDescription());
+        }
+    }
+
     // retrieves a product by its ID
+    @Transactional(readOnly = true)
     public ProductDTO getProductById(Long id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("product not found with id: " + id));
-        return convertToDto(product);
+        return loadProduct(id, true);
+    }
+
+    // Ids of deleted products stay in the id filter until its next rebuild and are still handed out by the
+    // co-purchase and search indexes; misses on those are not filter false positives, so the index-driven lookups
+    // pass countFalsePositive = false to keep them out of the reported rate
+    private ProductDTO loadProduct(Long id, boolean countFalsePositive) {
+        ProductDTO cached = catalogCache.getProduct(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        // ids that never existed (scrapers, guessed ids) are answered without a query
+        if (!productIdFilter.mightContain(id)) {
+            throw new ResourceNotFoundException("product not found with id: " + id);
+        }
+        long generation = catalogCache.generation();
+        Product product = productRepository.findById(id).orElseThrow(() -> {
+            if (countFalsePositive) {
+                productIdFilter.recordFalsePositive();
+            }
+            return new ResourceNotFoundException("product not found with id: " + id);
+        });
+        ProductDTO productDTO = convertToDto(product);
+        catalogCache.putProduct(id, productDTO, generation);
+        return productDTO;
     }
 
     // retrieves all products
+    @Transactional(readOnly = true)
     public List<ProductDTO> getAllProducts() {
-        return productRepository.findAll().stream()
+        List<ProductDTO> cached = catalogCache.getAllProducts();
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = catalogCache.generation();
+        List<ProductDTO> products = productRepository.findAll().stream()
                 .map(this::convertToDto) // map each entity to its DTO representation
                 .collect(Collectors.toList());
+        catalogCache.putAllProducts(products, generation);
+        return products;
+    }
+
+    // retrieves one page of products ordered by id, starting after the given cursor
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ProductDTO> getProductsPage(Long after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // fetch one extra row to know whether another page exists
+        List<Product> products = productRepository.findByIdGreaterThanOrderByIdAsc(
+                after != null ? after : 0L, PageRequest.of(0, pageSize + 1));
+
+        Long nextCursor = null;
+        if (products.size() > pageSize) {
+            products = products.subList(0, pageSize);
+            nextCursor = products.get(pageSize - 1).getId();
+        }
+
+        List<ProductDTO> items = products.stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+        return new CursorPageDTO<>(items, nextCursor);
+    }
+
+    // retrieves all products (or one category) with only the requested fields, selected straight from the DB
+    // sparse lists skip the catalog cache, the conditional GET in the controller covers repeat requests
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getProductFields(String fields, String category) {
+        Set<String> requested = parseFields(fields);
+        List<Tuple> rows = productRepository.findFields(columnsFor(requested), category, null, null);
+        return rows.stream()
+                .map(row -> toFieldMap(row, requested))
+                .collect(Collectors.toList());
+    }
+
+    // keyset paged variant of getProductFields
+    @Transactional(readOnly = true)
+    public CursorPageDTO<Map<String, Object>> getProductFieldsPage(String fields, Long after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Set<String> requested = parseFields(fields);
+        // fetch one extra row to know whether another page exists
+        List<Tuple> rows = productRepository.findFields(columnsFor(requested), null,
+                after != null ? after : 0L, pageSize + 1);
+
+        Long nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            nextCursor = rows.get(pageSize - 1).get("id", Long.class);
+        }
+
+        List<Map<String, Object>> items = rows.stream()
+                .map(row -> toFieldMap(row, requested))
+                .collect(Collectors.toList());
+        return new CursorPageDTO<>(items, nextCursor);
+    }
+
+    // "title, price" -> [id, title, price]; id is always returned so clients can link and page
+    private Set<String> parseFields(String fields) {
+        Set<String> requested = new LinkedHashSet<>();
+        requested.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!SPARSE_FIELDS.containsKey(name)) {
+                throw new BadRequestException("unknown product field: " + name
+                        + ", expected any of " + new TreeSet<>(SPARSE_FIELDS.keySet()));
+            }
+            requested.add(name);
+        }
+        return requested;
+    }
+
+    private List<String> columnsFor(Set<String> requested) {
+        List<String> columns = new ArrayList<>();
+        for (String field : requested) {
+            columns.addAll(SPARSE_FIELDS.get(field));
+        }
+        return columns;
+    }
+
+    // same shape as the matching ProductDTO properties, minus everything that was not asked for
+    private Map<String, Object> toFieldMap(Tuple row, Set<String> requested) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        for (String field : requested) {
+            if (field.equals("rating")) {
+                Double rate = row.get("ratingRate", Double.class);
+                Integer count = row.get("ratingCount", Integer.class);
+                item.put("rating", rate != null && count != null ? new RatingDTO(rate, count) : null);
+            } else {
+                item.put(field, row.get(field));
+            }
+        }
+        return item;
     }
 
     // retrieves products by category
+    @Transactional(readOnly = true)
     public List<ProductDTO> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category).stream()
+        List<ProductDTO> cached = catalogCache.getCategory(category);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = catalogCache.generation();
+        List<ProductDTO> products = productRepository.findByCategory(category).stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
+        catalogCache.putCategory(category, products, generation);
+        return products;
     }
 
     // updates an existing product
     public ProductDTO updateProduct(Long id, ProductDTO productDTO) {
         Product existingProduct = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("product not found with id: " + id));
+        String previousCategory = existingProduct.getCategory();
 
         // update existing product fields from DTO
         existingProduct.setTitle(productDTO.getTitle());
@@ -102,26 +315,159 @@ public class ProductService {
         }
 
         Product updatedProduct = productRepository.save(existingProduct);
+        // a category change moves the product between two cached category lists
+        catalogCache.invalidate(id, previousCategory, updatedProduct.getCategory());
+        searchIndex.index(id, updatedProduct.getTitle(), updatedProduct.getCategory(), updatedProduct.getDescription());
         return convertToDto(updatedProduct);
     }
 
-    // retrieves related products (same category, excluding current product)
+    // retrieves related products: most often bought together first, then the best rated of the same category
+    @Transactional(readOnly = true)
     public List<ProductDTO> getRelatedProducts(Long productId) {
-        Product currentProduct = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("product not found with id: " + productId));
-        
-        return productRepository.findByCategory(currentProduct.getCategory()).stream()
-                .filter(product -> !product.getId().equals(productId)) // exclude current product
-                .limit(4) // limit to 4 related products
+        ProductDTO currentProduct = getProductById(productId);
+
+        List<ProductDTO> related = new ArrayList<>(RELATED_PRODUCTS_LIMIT);
+        Set<Long> seen = new HashSet<>();
+        seen.add(productId); // exclude current product
+        for (Long neighbourId : coPurchaseIndex.topNeighbours(productId)) {
+            if (related.size() == RELATED_PRODUCTS_LIMIT) {
+                break;
+            }
+            ProductDTO neighbour = findProduct(neighbourId);
+            if (neighbour == null) {
+                // deleted, possibly on another node: stop recommending it
+                coPurchaseIndex.removeProduct(neighbourId);
+            } else if (seen.add(neighbourId)) {
+                related.add(neighbour);
+            }
+        }
+
+        if (related.size() < RELATED_PRODUCTS_LIMIT) {
+            getProductsByCategory(currentProduct.getCategory()).stream()
+                    .filter(product -> !seen.contains(product.getId()))
+                    .sorted(BY_RATING)
+                    .limit(RELATED_PRODUCTS_LIMIT - related.size())
+                    .forEach(related::add);
+        }
+        return related;
+    }
+
+    // filtered, sorted browsing with facet counts; facets come from the catalog cache, not a scan per request
+    @Transactional(readOnly = true)
+    public ProductBrowseDTO browseProducts(String category, Double minPrice, Double maxPrice, Double minRating,
+                                           String sort, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Slice<Product> products = productRepository.browse(
+                category,
+                minPrice != null ? minPrice : 0.0,
+                maxPrice != null ? maxPrice : Double.MAX_VALUE,
+                minRating,
+                PageRequest.of(Math.max(0, page), pageSize, browseSort(sort)));
+
+        List<ProductDTO> items = products.getContent().stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
+
+        List<PriceBucketCountDTO> facetCounts = getFacetCounts();
+        Map<String, Long> categoryCounts = new LinkedHashMap<>();
+        long[] bucketCounts = new long[PRICE_BUCKET_BOUNDS.length];
+        for (PriceBucketCountDTO count : facetCounts) {
+            categoryCounts.merge(count.getCategory(), count.getCount(), Long::sum);
+            if (category == null || category.equals(count.getCategory())) {
+                bucketCounts[count.getBucket()] += count.getCount();
+            }
+        }
+        Map<String, Long> priceBucketCounts = new LinkedHashMap<>();
+        for (int i = 0; i < PRICE_BUCKET_BOUNDS.length; i++) {
+            priceBucketCounts.put(priceBucketLabel(i), bucketCounts[i]);
+        }
+
+        return new ProductBrowseDTO(items, products.getNumber(), products.hasNext(), categoryCounts, priceBucketCounts);
+    }
+
+    private List<PriceBucketCountDTO> getFacetCounts() {
+        List<PriceBucketCountDTO> cached = catalogCache.getFacetCounts();
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = catalogCache.generation();
+        List<PriceBucketCountDTO> counts = productRepository.countByCategoryAndPriceBucket();
+        catalogCache.putFacetCounts(counts, generation);
+        return counts;
+    }
+
+    private Sort browseSort(String sort) {
+        if (sort == null) {
+            return Sort.by("id");
+        }
+        switch (sort) {
+            case "price_asc":
+                return Sort.by("price").ascending().and(Sort.by("id"));
+            case "price_desc":
+                return Sort.by("price").descending().and(Sort.by("id"));
+            case "rating":
+                return Sort.by(Sort.Order.desc("ratingRate").nullsLast(), Sort.Order.desc("ratingCount").nullsLast(),
+                        Sort.Order.asc("id"));
+            case "popular":
+                return Sort.by(Sort.Order.desc("ratingCount").nullsLast(), Sort.Order.asc("id"));
+            default:
+                return Sort.by("id");
+        }
+    }
+
+    private String priceBucketLabel(int bucket) {
+        long from = (long) PRICE_BUCKET_BOUNDS[bucket];
+        return bucket + 1 < PRICE_BUCKET_BOUNDS.length
+                ? from + "-" + (long) PRICE_BUCKET_BOUNDS[bucket + 1]
+                : from + "+";
+    }
+
+    // full-text search over title, category and description, with prefix and typo tolerance
+    @Transactional(readOnly = true)
+    public List<ProductDTO> searchProducts(String query, int limit) {
+        int resultSize = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+        List<ProductDTO> results = new ArrayList<>(resultSize);
+        for (Long productId : searchIndex.search(query, resultSize)) {
+            ProductDTO product = findProduct(productId);
+            if (product != null) {
+                results.add(product);
+            }
+        }
+        return results;
+    }
+
+    // like getProductById, but returns null for products deleted since the index saw them
+    private ProductDTO findProduct(Long id) {
+        try {
+            return loadProduct(id, false);
+        } catch (ResourceNotFoundException e) {
+            return null;
+        }
     }
 
     // deletes a product by its ID
     public void deleteProduct(Long id) {
-        if (!productRepository.existsById(id)) {
-            throw new ResourceNotFoundException("product not found with id: " + id);
-        }
-        productRepository.deleteById(id);
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("product not found with id: " + id));
+        productRepository.delete(product);
+        catalogCache.invalidate(id, product.getCategory());
+        coPurchaseIndex.removeProduct(id);
+        searchIndex.remove(id);
+        stockService.forgetProduct(id);
+    }
+
+    // version of the whole catalog, changes on every product write here and at every catalog cache period, by when
+    // writes made on other nodes show up; used as the ETag of catalog responses
+    // read it before loading the data so a concurrent write can only make the tag older than the body, never newer
+    public String getCatalogVersion() {
+        return catalogEpoch + "-" + catalogCache.generation() + "-" + catalogCache.period();
+    }
+
+    // hit/miss/eviction counters of the catalog cache
+    public Map<String, Object> getCatalogCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(catalogCache.stats());
+        stats.put("idFilter", productIdFilter.stats());
+        return stats;
     }
 }
\ No newline at end of file
@@ -1,26 +1,63 @@
 package com.ecommerce.backend.service;
 
+import com.ecommerce.backend.cache.PromoCodeCache;
 import com.ecommerce.backend.entity.PromoCode;
+import com.ecommerce.backend.index.ExistenceFilter;
 import com.ecommerce.backend.repository.PromoCodeRepository;
 import com.ecommerce.backend.exception.ResourceNotFoundException;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
+@Timed(value = "service.calls", histogram = true)
 public class PromoCodeService {
 
+    // each refresh re-reads this much history so rows committed late by slow transactions are not missed
+    private static final long REFRESH_OVERLAP_SECONDS = 60;
+
     private final PromoCodeRepository promoCodeRepository;
+    private final PromoCodeCache promoCodeCache;
+    // active promo codes as of the last refresh, guessed codes are rejected without a query
+    private final ExistenceFilter promoCodeFilter;
 
-    public PromoCodeService(PromoCodeRepository promoCodeRepository) {
+    public PromoCodeService(PromoCodeRepository promoCodeRepository, PromoCodeCache promoCodeCache,
+                            @Qualifier("promoCodeFilter") ExistenceFilter promoCodeFilter) {
         this.promoCodeRepository = promoCodeRepository;
+        this.promoCodeCache = promoCodeCache;
+        this.promoCodeFilter = promoCodeFilter;
     }
 
     public PromoCode validatePromoCode(String code) {
         LocalDateTime now = LocalDateTime.now();
-        return promoCodeRepository.findByCodeAndIsActiveTrueAndValidFromBeforeAndValidUntilAfter(
-                code, now, now)
-                .orElseThrow(() -> new ResourceNotFoundException("Invalid or expired promo code: " + code));
+        PromoCode promo = promoCodeCache.get(code);
+        if (promo == null) {
+            if (!promoCodeFilter.mightContain(code)) {
+                throw new ResourceNotFoundException("Invalid or expired promo code: " + code);
+            }
+            // not cached yet (e.g. evicted as expired while still active), fall back to the database; the
+            // validity window is checked below
+            promo = promoCodeRepository.findByCodeAndIsActiveTrue(code).orElseThrow(() -> {
+                promoCodeFilter.recordFalsePositive();
+                return new ResourceNotFoundException("Invalid or expired promo code: " + code);
+            });
+            if (promo.getValidUntil().isAfter(now)) {
+                promoCodeCache.put(promo);
+            }
+        }
+
+        if (!Boolean.TRUE.equals(promo.getIsActive())
+                || !promo.getValidFrom().isBefore(now) || !promo.getValidUntil().isAfter(now)) {
+            throw new ResourceNotFoundException("Invalid or expired promo code: " + code);
+        }
+        return promo;
     }
 
     public Double calculateDiscount(String promoCode, Double originalPrice) {
@@ -29,6 +66,52 @@ public class PromoCodeService {
         }
         
         PromoCode promo = validatePromoCode(promoCode);
+        return calculateDiscount(promo, originalPrice);
+    }
+
+    // discount for an already validated promo code, avoids a second lookup
+    public Double calculateDiscount(PromoCode promo, Double originalPrice) {
         return (originalPrice * promo.getDiscountPercentage()) / 100;
     }
-}
\ No newline at end of file
+
+    // Keeps the promo code cache in sync: full load on the first run, then only rows changed since the last run
+    @Scheduled(fixedDelayString = "${promo.cache.refresh-interval:5s}")
+    public void refreshPromoCodeCache() {
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = promoCodeCache.getHighWaterMark();
+        List<PromoCode> changed = since == null
+                ? promoCodeRepository.findByIsActiveTrueAndValidUntilAfter(now)
+                : promoCodeRepository.findByUpdatedAtGreaterThanEqual(since.minusSeconds(REFRESH_OVERLAP_SECONDS));
+
+        LocalDateTime newHighWaterMark = since;
+        for (PromoCode promo : changed) {
+            if (Boolean.TRUE.equals(promo.getIsActive()) && promo.getValidUntil().isAfter(now)) {
+                promoCodeCache.put(promo);
+                promoCodeFilter.add(promo.getCode());
+            } else {
+                promoCodeCache.remove(promo.getCode());
+            }
+            if (promo.getUpdatedAt() != null
+                    && (newHighWaterMark == null || promo.getUpdatedAt().isAfter(newHighWaterMark))) {
+                newHighWaterMark = promo.getUpdatedAt();
+            }
+        }
+        promoCodeCache.removeExpired(now);
+        // the cache now holds every active code: build the filter from it after the full load, and again whenever
+        // more codes were added than it was sized for (codes that expired or were deactivated are dropped then too)
+        if (since == null || promoCodeFilter.needsRebuild()) {
+            Set<String> codes = promoCodeCache.codes();
+            promoCodeFilter.rebuild(codes.size(), filter -> codes.forEach(filter::add));
+        }
+        promoCodeFilter.markSynced(started);
+        // rows without updatedAt (created before the column existed) only come in through the full load
+        promoCodeCache.markRefreshed(newHighWaterMark != null ? newHighWaterMark : now);
+    }
+
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(promoCodeCache.stats());
+        stats.put("codeFilter", promoCodeFilter.stats());
+        return stats;
+    }
+}
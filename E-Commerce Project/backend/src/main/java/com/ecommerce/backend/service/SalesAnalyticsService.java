@@ -0,0 +1,206 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.dto.SalesSummaryDTO;
+import com.ecommerce.backend.entity.Order;
+import com.ecommerce.backend.entity.OrderItem;
+import com.ecommerce.backend.entity.SalesRollup;
+import com.ecommerce.backend.repository.OrderRepository;
+import com.ecommerce.backend.repository.SalesRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// Maintains the sales_rollups table incrementally: order changes add signed deltas to an in-memory
+// buffer that is flushed periodically, so checkouts never contend on the same rollup row.
+// The buffer is kept per order so a rebuild can tell which deltas its scan of the orders table already covers.
+@Service
+public class SalesAnalyticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesAnalyticsService.class);
+
+    // category value of the per-order total rows, which daily and promo code reports read
+    private static final String ALL_CATEGORIES = "";
+    private static final String NO_PROMO_CODE = "";
+    private static final int REBUILD_PAGE_SIZE = 500;
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // unflushed deltas by order id
+    private final Map<Long, Map<RollupKey, RollupDelta>> pending = new ConcurrentHashMap<>();
+    // held by a flush and for the whole of a rebuild, so no flush lands between the rebuild's scan and its replace
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public SalesAnalyticsService(SalesRollupRepository salesRollupRepository, OrderRepository orderRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.salesRollupRepository = salesRollupRepository;
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // sign is +1 when an order starts counting towards sales and -1 when it stops (cancelled or deleted)
+    // the order must be saved (have an id) and the change committed
+    public void recordOrder(Order order, int sign) {
+        Map<RollupKey, RollupDelta> deltas = deltasFor(order, sign);
+        pending.compute(order.getId(), (id, buffered) -> merge(buffered, deltas));
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.rollup.flush-interval:5s}")
+    public void flushRollups() {
+        if (pending.isEmpty() || !flushLock.tryLock()) {
+            return; // nothing to do, or a rebuild is running: its deltas wait for the next run
+        }
+        try {
+            Map<Long, Map<RollupKey, RollupDelta>> batch = new HashMap<>();
+            for (Long orderId : pending.keySet()) {
+                Map<RollupKey, RollupDelta> deltas = pending.remove(orderId);
+                if (deltas != null) {
+                    batch.put(orderId, deltas);
+                }
+            }
+            Map<RollupKey, RollupDelta> totals = new HashMap<>();
+            batch.values().forEach(deltas -> merge(totals, deltas));
+
+            try {
+                transactionTemplate.executeWithoutResult(tx -> totals.forEach(this::applyDelta));
+            } catch (RuntimeException e) {
+                // e.g. another instance inserted the same key first: put the deltas back and retry next time
+                batch.forEach((orderId, deltas) -> pending.compute(orderId, (id, buffered) -> merge(buffered, deltas)));
+                log.warn("Sales rollup flush failed, retrying on next run", e);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Recomputes all rollups from the orders table, for backfilling existing data or repairing drift (deltas
+    // buffered in memory are lost when the process dies). The scan covers the orders up to max(id) at the start;
+    // as each page is read, the buffered deltas of its orders are dropped, since the rows read already include
+    // them. Deltas recorded after that, and those of orders outside the scan, are flushed on top once the
+    // rollups are replaced.
+    public void rebuildRollups() {
+        flushLock.lock();
+        try {
+            long maxId = orderRepository.findMaxId();
+            Map<RollupKey, RollupDelta> totals = new HashMap<>();
+            List<Long> orderIds = orderRepository.findIdsAfter(0L, PageRequest.of(0, REBUILD_PAGE_SIZE));
+            while (!orderIds.isEmpty() && orderIds.get(0) <= maxId) {
+                for (Order order : orderRepository.findAllById(orderIds)) {
+                    if (order.getId() > maxId) {
+                        continue;
+                    }
+                    pending.remove(order.getId());
+                    if (!"CANCELLED".equals(order.getStatus())) {
+                        merge(totals, deltasFor(order, 1));
+                    }
+                }
+                orderIds = orderRepository.findIdsAfter(orderIds.get(orderIds.size() - 1),
+                        PageRequest.of(0, REBUILD_PAGE_SIZE));
+            }
+
+            transactionTemplate.executeWithoutResult(tx -> {
+                salesRollupRepository.deleteAllInBatch();
+                totals.forEach(this::applyDelta);
+            });
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // adds `deltas` into `into` (created when null) and returns it
+    private static Map<RollupKey, RollupDelta> merge(Map<RollupKey, RollupDelta> into,
+                                                     Map<RollupKey, RollupDelta> deltas) {
+        Map<RollupKey, RollupDelta> merged = into != null ? into : new HashMap<>();
+        deltas.forEach((key, delta) -> merged.merge(key, delta, RollupDelta::plus));
+        return merged;
+    }
+
+    public List<SalesSummaryDTO> getDailySales(LocalDate from, LocalDate to) {
+        return summarize(from, to, true, rollup -> rollup.getSalesDate().toString());
+    }
+
+    public List<SalesSummaryDTO> getCategorySales(LocalDate from, LocalDate to) {
+        return summarize(from, to, false, SalesRollup::getCategory);
+    }
+
+    public List<SalesSummaryDTO> getPromoCodeSales(LocalDate from, LocalDate to) {
+        return summarize(from, to, true, SalesRollup::getPromoCode);
+    }
+
+    // reads only the rollup rows in the date range, so cost is days x categories x promo codes
+    private List<SalesSummaryDTO> summarize(LocalDate from, LocalDate to, boolean orderTotals,
+                                            Function<SalesRollup, String> keyFunction) {
+        Map<String, SalesSummaryDTO> summaries = new TreeMap<>();
+        for (SalesRollup rollup : salesRollupRepository.findBySalesDateBetween(from, to)) {
+            if (ALL_CATEGORIES.equals(rollup.getCategory()) != orderTotals) {
+                continue;
+            }
+            SalesSummaryDTO summary = summaries.computeIfAbsent(keyFunction.apply(rollup),
+                    key -> new SalesSummaryDTO(key, 0.0, 0.0, 0L, 0L));
+            summary.setRevenue(summary.getRevenue() + rollup.getRevenue());
+            summary.setDiscount(summary.getDiscount() + rollup.getDiscount());
+            summary.setUnits(summary.getUnits() + rollup.getUnits());
+            summary.setOrders(summary.getOrders() + rollup.getOrderCount());
+        }
+        return new ArrayList<>(summaries.values());
+    }
+
+    private void applyDelta(RollupKey key, RollupDelta delta) {
+        int updated = salesRollupRepository.addToRollup(key.salesDate(), key.category(), key.promoCode(),
+                delta.revenue(), delta.discount(), delta.units(), delta.orders());
+        if (updated == 0) {
+            salesRollupRepository.save(new SalesRollup(null, key.salesDate(), key.category(), key.promoCode(),
+                    delta.revenue(), delta.discount(), delta.units(), delta.orders()));
+        }
+    }
+
+    // one row per category in the order plus one order total row; the order discount
+    // is spread over the items in proportion to their totals
+    private Map<RollupKey, RollupDelta> deltasFor(Order order, int sign) {
+        Map<RollupKey, RollupDelta> deltas = new HashMap<>();
+        LocalDate salesDate = order.getOrderDate().toLocalDate();
+        String promoCode = order.getPromoCode() != null ? order.getPromoCode().getCode() : NO_PROMO_CODE;
+        double orderDiscount = order.getDiscountAmount() != null ? order.getDiscountAmount() : 0.0;
+        double itemsTotal = order.getOrderItems().stream().mapToDouble(OrderItem::getTotalPrice).sum();
+
+        long totalUnits = 0;
+        for (OrderItem item : order.getOrderItems()) {
+            double discount = itemsTotal > 0 ? orderDiscount * item.getTotalPrice() / itemsTotal : 0.0;
+            RollupKey key = new RollupKey(salesDate, item.getProduct().getCategory(), promoCode);
+            // an order counts once per category, however many of its lines fall into it
+            long orderCount = deltas.containsKey(key) ? 0 : sign;
+            deltas.merge(key, new RollupDelta(sign * (item.getTotalPrice() - discount), sign * discount,
+                    (long) sign * item.getQuantity(), orderCount), RollupDelta::plus);
+            totalUnits += item.getQuantity();
+        }
+
+        deltas.put(new RollupKey(salesDate, ALL_CATEGORIES, promoCode),
+                new RollupDelta(sign * (itemsTotal - orderDiscount), sign * orderDiscount, sign * totalUnits, sign));
+        return deltas;
+    }
+
+    private record RollupKey(LocalDate salesDate, String category, String promoCode) {
+    }
+
+    private record RollupDelta(double revenue, double discount, long units, long orders) {
+        RollupDelta plus(RollupDelta other) {
+            return new RollupDelta(revenue + other.revenue, discount + other.discount,
+                    units + other.units, orders + other.orders);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.entity.Order;
+import com.ecommerce.backend.entity.OrderItem;
+import com.ecommerce.backend.exception.InsufficientStockException;
+import com.ecommerce.backend.exception.ResourceNotFoundException;
+import com.ecommerce.backend.inventory.StockLedger;
+import com.ecommerce.backend.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Stock reservations for checkout: orders reserve against in-memory counters (StockLedger) that are filled
+// with blocks of units claimed from products.stock by conditional decrement UPDATEs, so any number of
+// instances can sell the same product without overselling it. products.stock is the unclaimed stock; what
+// is on hand is that plus the units the instances hold. A scheduled reconcile returns the units this
+// instance does not need, so restocks and stock left on idle instances are sold wherever the orders arrive.
+@Service
+public class StockService {
+
+    private final ProductRepository productRepository;
+    private final StockLedger ledger;
+
+    public StockService(ProductRepository productRepository, @Value("${stock.block-size:20}") int blockSize) {
+        this.productRepository = productRepository;
+        this.ledger = new StockLedger(new StockLedger.StockStore() {
+            @Override
+            public Integer stock(Long productId) {
+                return productRepository.findStockById(productId);
+            }
+
+            @Override
+            public boolean take(Long productId, int units) {
+                return productRepository.decrementStock(productId, units) == 1;
+            }
+
+            @Override
+            public boolean giveBack(Long productId, int units) {
+                return productRepository.incrementStock(productId, units) == 1;
+            }
+        }, blockSize);
+    }
+
+    // reserves every line of the order or nothing
+    public void reserve(Order order) {
+        Long soldOut = ledger.tryReserveAll(unitsByProduct(order));
+        if (soldOut != null) {
+            throw new InsufficientStockException("Not enough stock for product with id: " + soldOut);
+        }
+    }
+
+    // returns the order's units, for cancelled orders and checkouts that failed after reserving
+    public void release(Order order) {
+        unitsByProduct(order).forEach(ledger::release);
+    }
+
+    // units available for checkout (unclaimed plus held by this instance; blocks other instances hold are
+    // not included), null when the product does not track stock
+    public Integer getAvailable(Long productId) {
+        Integer held = ledger.held(productId);
+        Integer unclaimed = productRepository.findStockById(productId);
+        return held == null || unclaimed == null ? unclaimed : unclaimed + held;
+    }
+
+    // restock (positive) or write-off (negative); the first adjustment of an untracked product starts tracking it
+    public Integer adjustStock(Long productId, int units) {
+        if (ledger.held(productId) == null) {
+            if (productRepository.initStock(productId, Math.max(units, 0)) == 0
+                    && !productRepository.existsById(productId)) {
+                throw new ResourceNotFoundException("product not found with id: " + productId);
+            }
+            ledger.remove(productId);
+            return getAvailable(productId);
+        }
+        if (units >= 0) {
+            // straight to the DB, every instance can claim the new units
+            productRepository.incrementStock(productId, units);
+            ledger.stockAdded(productId);
+        } else if (!ledger.tryReserve(productId, -units)) {
+            throw new InsufficientStockException("Not enough stock to write off " + -units
+                    + " units of product with id: " + productId);
+        }
+        return getAvailable(productId);
+    }
+
+    public void forgetProduct(Long productId) {
+        ledger.remove(productId);
+    }
+
+    @Scheduled(fixedDelayString = "${stock.reconcile-interval:1s}")
+    public void reconcile() {
+        ledger.returnUnused();
+    }
+
+    // hands every held unit back before the counters are lost
+    @PreDestroy
+    void flush() {
+        ledger.returnAll();
+    }
+
+    public Map<String, Object> getStats() {
+        return ledger.stats();
+    }
+
+    private Map<Long, Integer> unitsByProduct(Order order) {
+        Map<Long, Integer> units = new HashMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            if (item.getQuantity() != null && item.getQuantity() > 0) {
+                units.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+            }
+        }
+        return units;
+    }
+}
@@ -0,0 +1,8 @@
+-- Entity ids are allocated in blocks of 50 (pooled optimizer, see @SequenceGenerator allocationSize).
+-- Sequences created before that change still increment by 1, which Hibernate rejects at startup,
+-- so bring them in line. On a fresh database the sequences do not exist yet and Hibernate creates
+-- them with the right increment.
+ALTER SEQUENCE IF EXISTS product_sequence INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS order_sequence INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS order_item_sequence INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS promo_code_sequence INCREMENT BY 50;
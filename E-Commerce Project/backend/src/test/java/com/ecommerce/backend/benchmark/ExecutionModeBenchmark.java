@@ -0,0 +1,143 @@
+package com.ecommerce.backend.benchmark;
+
+import com.ecommerce.backend.BackendApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Boots the application once per execution mode (platform threads, then virtual threads) and drives two
+// I/O-bound endpoints with a fixed number of in-flight requests, reporting throughput and latency per level:
+//   remote-io  waits without holding a DB connection, like a call to a payment gateway
+//   db-io      waits while holding a pooled connection, like a slow Postgres query
+// Platform mode tops out at server.tomcat.threads.max in-flight requests, virtual mode keeps scaling on
+// remote-io, and both stall at the Hikari pool size on db-io.
+// Virtual mode needs a Java 21+ runtime and is skipped on older ones.
+// run with: mvn test -Pbenchmark -Dtest=ExecutionModeBenchmark
+// tune with -Dmodes.concurrency=50,200,800 -Dmodes.duration=5 -Dmodes.ioMillis=50
+@Tag("benchmark")
+class ExecutionModeBenchmark {
+
+	private static final String CONCURRENCY = System.getProperty("modes.concurrency", "50,200,800");
+	private static final int DURATION_SECONDS = Integer.getInteger("modes.duration", 5);
+	private static final int IO_MILLIS = Integer.getInteger("modes.ioMillis", 50);
+
+	@Test
+	void concurrentRequestCapacity() throws Exception {
+		run(false);
+		if (Runtime.version().feature() >= 21) {
+			run(true);
+		} else {
+			System.out.println("virtual threads need Java 21+, running on " + Runtime.version() + ", skipped");
+		}
+	}
+
+	private void run(boolean virtual) throws Exception {
+		String mode = virtual ? "virtual" : "platform";
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class)
+				.profiles("benchmark")
+				.initializers((GenericApplicationContext ctx) ->
+						ctx.registerBean("ioRoutes", RouterFunction.class, () -> ioRoutes(ctx)))
+				// command line arguments, unlike builder properties they take precedence over application.properties
+				.run("--server.port=0",
+						"--spring.threads.virtual.enabled=" + virtual,
+						"--spring.datasource.url=jdbc:h2:mem:modes-" + mode + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+						"--spring.jpa.show-sql=false")) {
+			int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+			String threads = context.getEnvironment().getProperty("server.tomcat.threads.max", "200");
+			String pool = context.getEnvironment().getProperty("spring.datasource.hikari.maximum-pool-size", "10");
+			System.out.printf("%n%s threads (tomcat threads %s, db pool %s, io %d ms)%n",
+					mode, virtual ? "n/a" : threads, pool, IO_MILLIS);
+			System.out.printf("%-10s %11s %10s %9s %9s %7s%n", "endpoint", "in-flight", "req/s", "p50 ms", "p99 ms",
+					"errors");
+			HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+			for (String endpoint : List.of("remote-io", "db-io")) {
+				for (String level : CONCURRENCY.split(",")) {
+					drive(client, port, endpoint, Integer.parseInt(level.trim()));
+				}
+			}
+		}
+	}
+
+	// the benchmark endpoints are registered functionally so nothing here is picked up by component scanning
+	private RouterFunction<ServerResponse> ioRoutes(GenericApplicationContext context) {
+		return RouterFunctions.route()
+				.GET("/benchmark/remote-io", request -> {
+					Thread.sleep(IO_MILLIS);
+					return ServerResponse.ok().body("ok");
+				})
+				.GET("/benchmark/db-io", request -> {
+					context.getBean(JdbcTemplate.class).execute((Connection connection) -> {
+						try {
+							Thread.sleep(IO_MILLIS);
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+						return connection.isValid(1);
+					});
+					return ServerResponse.ok().body("ok");
+				})
+				.build();
+	}
+
+	// closed loop: keeps exactly `inFlight` requests outstanding for the measured duration
+	private void drive(HttpClient client, int port, String endpoint, int inFlight) throws InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/benchmark/" + endpoint))
+				.timeout(Duration.ofSeconds(30))
+				.build();
+		Semaphore permits = new Semaphore(inFlight);
+		List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+		AtomicLong errors = new AtomicLong();
+
+		long start = System.nanoTime();
+		long end = start + TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+		while (System.nanoTime() < end) {
+			permits.acquire();
+			long sent = System.nanoTime();
+			client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+				if (failure != null || response.statusCode() != 200) {
+					errors.incrementAndGet();
+				} else {
+					latencies.add(System.nanoTime() - sent);
+				}
+				permits.release();
+			});
+		}
+		permits.acquire(inFlight);
+		double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+		List<Long> sorted;
+		synchronized (latencies) {
+			sorted = new ArrayList<>(latencies);
+		}
+		Collections.sort(sorted);
+		System.out.printf("%-10s %11d %10.0f %9.1f %9.1f %7d%n", endpoint, inFlight, sorted.size() / elapsedSeconds,
+				percentile(sorted, 0.50), percentile(sorted, 0.99), errors.get());
+	}
+
+	private double percentile(List<Long> sorted, double quantile) {
+		if (sorted.isEmpty()) {
+			return 0;
+		}
+		int index = (int) Math.ceil(quantile * sorted.size()) - 1;
+		return sorted.get(Math.max(0, index)) / 1e6;
+	}
+}
@@ -0,0 +1,105 @@
+package com.ecommerce.backend.benchmark;
+
+import com.ecommerce.backend.dto.CartItemDTO;
+import com.ecommerce.backend.dto.OrderDTO;
+import com.ecommerce.backend.entity.Product;
+import com.ecommerce.backend.repository.ProductRepository;
+import com.ecommerce.backend.service.OrderService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// inserts per second for bulk product loads and large carts
+// run with: mvn test -Pbenchmark -Dtest=InsertThroughputBenchmark
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("benchmark")
+@Tag("benchmark")
+class InsertThroughputBenchmark {
+
+	private static final int PRODUCTS = 20_000;
+	private static final int PRODUCTS_PER_SAVE = 1_000;
+	private static final int ORDERS = 200;
+	private static final int LINES_PER_CART = 100;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void insertThroughput() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		// warm up the JIT and connection pool on a small run first
+		List<Product> warmupProducts = loadProducts(2_000);
+		placeOrders(warmupProducts, 20);
+
+		statistics.clear();
+		long start = System.nanoTime();
+		List<Product> products = loadProducts(PRODUCTS);
+		report("bulk product load", PRODUCTS, System.nanoTime() - start, statistics);
+
+		statistics.clear();
+		start = System.nanoTime();
+		placeOrders(products, ORDERS);
+		report("large carts (" + LINES_PER_CART + " lines)", ORDERS * LINES_PER_CART, System.nanoTime() - start, statistics);
+	}
+
+	private List<Product> loadProducts(int count) {
+		List<Product> saved = new ArrayList<>(count);
+		List<Product> chunk = new ArrayList<>(PRODUCTS_PER_SAVE);
+		for (int i = 0; i < count; i++) {
+			Product product = new Product();
+			product.setTitle("Benchmark product " + i);
+			product.setDescription("Synthetic product used by the insert benchmark");
+			product.setPrice(100.0 + i % 500);
+			product.setCategory("Category " + i % 20);
+			product.setRatingRate(4.0);
+			product.setRatingCount(i % 1000);
+			chunk.add(product);
+			if (chunk.size() == PRODUCTS_PER_SAVE || i == count - 1) {
+				saved.addAll(productRepository.saveAll(chunk));
+				chunk.clear();
+			}
+		}
+		return saved;
+	}
+
+	private void placeOrders(List<Product> products, int orders) {
+		for (int o = 0; o < orders; o++) {
+			List<CartItemDTO> cartItems = new ArrayList<>(LINES_PER_CART);
+			double originalPrice = 0.0;
+			for (int line = 0; line < LINES_PER_CART; line++) {
+				Product product = products.get((o * LINES_PER_CART + line) % products.size());
+				cartItems.add(new CartItemDTO(product.getId(), 1, product.getPrice()));
+				originalPrice += product.getPrice();
+			}
+
+			OrderDTO orderDTO = new OrderDTO();
+			orderDTO.setAddressLine1("1 Benchmark Street");
+			orderDTO.setState("Benchmark");
+			orderDTO.setPincode("000000");
+			orderDTO.setOriginalPrice(originalPrice);
+			orderDTO.setCartItems(cartItems);
+			orderService.createOrder(orderDTO);
+		}
+	}
+
+	private void report(String name, int rows, long elapsedNanos, Statistics statistics) {
+		double seconds = elapsedNanos / 1_000_000_000.0;
+		System.out.printf("%-28s %8d rows in %7.2f s = %10.0f inserts/s, %6d statements prepared%n",
+				name, rows, seconds, rows / seconds, statistics.getPrepareStatementCount());
+	}
+}
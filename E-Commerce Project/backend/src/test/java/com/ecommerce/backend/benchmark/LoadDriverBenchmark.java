@@ -0,0 +1,309 @@
+package com.ecommerce.backend.benchmark;
+
+import com.ecommerce.backend.dto.CartItemDTO;
+import com.ecommerce.backend.dto.OrderDTO;
+import com.ecommerce.backend.entity.Product;
+import com.ecommerce.backend.entity.PromoCode;
+import com.ecommerce.backend.index.ProductSearchIndex;
+import com.ecommerce.backend.repository.ProductRepository;
+import com.ecommerce.backend.repository.PromoCodeRepository;
+import com.ecommerce.backend.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Seeds the embedded database with synthetic products, promo codes and orders, then replays a mix of
+// catalog reads and checkouts over HTTP and reports throughput and p50/p99/p999 latency per endpoint.
+// run with: mvn test -Pbenchmark -Dtest=LoadDriverBenchmark
+// tune with -Dload.threads=16 -Dload.duration=20 -Dload.mix=product:35,page:15,category:10,search:10,browse:10,checkout:20
+// and fail the run when an endpoint's p99 exceeds the limit or any request fails with -Dload.maxP99Ms=50;
+// without it the run only reports
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("benchmark")
+@Tag("benchmark")
+class LoadDriverBenchmark {
+
+	private static final int PRODUCTS = Integer.getInteger("load.products", 10_000);
+	private static final int PROMO_CODES = Integer.getInteger("load.promoCodes", 20);
+	private static final int SEED_ORDERS = Integer.getInteger("load.orders", 2_000);
+	private static final int THREADS = Integer.getInteger("load.threads", 16);
+	private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup", 5);
+	private static final int DURATION_SECONDS = Integer.getInteger("load.duration", 20);
+	private static final String MIX = System.getProperty("load.mix",
+			"product:35,page:15,category:10,search:10,browse:10,checkout:20");
+	private static final String MAX_P99_MS = System.getProperty("load.maxP99Ms");
+
+	private static final int CATEGORIES = 20;
+	private static final String[] SEARCH_TERMS = {"phone", "laptop", "shoe", "camera", "watch", "lamp", "shirt"};
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private PromoCodeRepository promoCodeRepository;
+
+	@Autowired
+	private ProductSearchIndex productSearchIndex;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private final HttpClient client = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(5))
+			.build();
+
+	private List<Long> productIds;
+	private List<String> promoCodes;
+
+	@Test
+	void replayTrafficMix() throws Exception {
+		seed();
+		Map<String, Integer> mix = parseMix(MIX);
+
+		System.out.printf("Load driver: %d threads, %d s warm-up, %d s measured, mix %s%n",
+				THREADS, WARMUP_SECONDS, DURATION_SECONDS, mix);
+		run(mix, WARMUP_SECONDS);
+		Map<String, Samples> results = run(mix, DURATION_SECONDS);
+
+		System.out.printf("%-10s %9s %7s %9s %9s %9s %9s %9s%n",
+				"endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+		List<String> regressions = new ArrayList<>();
+		for (Map.Entry<String, Samples> entry : results.entrySet()) {
+			Samples samples = entry.getValue();
+			long[] sorted = samples.sorted();
+			System.out.printf("%-10s %9d %7d %9.0f %9.2f %9.2f %9.2f %9.2f%n",
+					entry.getKey(), sorted.length, samples.errors, (double) sorted.length / DURATION_SECONDS,
+					millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)),
+					millis(percentile(sorted, 0.999)), millis(percentile(sorted, 1.0)));
+			if (MAX_P99_MS == null) {
+				continue; // report only
+			}
+			if (millis(percentile(sorted, 0.99)) > Double.parseDouble(MAX_P99_MS)) {
+				regressions.add(entry.getKey());
+			}
+			if (samples.errors > 0) {
+				regressions.add(entry.getKey() + " (errors)");
+			}
+		}
+		assertTrue(regressions.isEmpty(), "p99 above " + MAX_P99_MS + " ms or failed requests: " + regressions);
+	}
+
+	private void seed() {
+		long start = System.nanoTime();
+		List<Product> products = new ArrayList<>(PRODUCTS);
+		for (int i = 0; i < PRODUCTS; i++) {
+			Product product = new Product();
+			product.setTitle(SEARCH_TERMS[i % SEARCH_TERMS.length] + " model " + i);
+			product.setDescription("Synthetic " + SEARCH_TERMS[(i / 7) % SEARCH_TERMS.length] + " for load tests");
+			product.setPrice(100.0 + (i * 37) % 100_000);
+			product.setCategory("Category " + i % CATEGORIES);
+			product.setImage("https://cdn.example.com/images/products/" + i + ".jpg");
+			product.setRatingRate(1.0 + (i % 40) / 10.0);
+			product.setRatingCount(i % 1000);
+			products.add(product);
+		}
+		productIds = new ArrayList<>(PRODUCTS);
+		for (int from = 0; from < PRODUCTS; from += 1_000) {
+			for (Product saved : productRepository.saveAll(products.subList(from, Math.min(from + 1_000, PRODUCTS)))) {
+				productIds.add(saved.getId());
+				productSearchIndex.index(saved.getId(), saved.getTitle(), saved.getCategory(), saved.getDescription());
+			}
+		}
+
+		promoCodes = new ArrayList<>(PROMO_CODES);
+		List<PromoCode> promos = new ArrayList<>(PROMO_CODES);
+		for (int i = 0; i < PROMO_CODES; i++) {
+			PromoCode promo = new PromoCode();
+			promo.setCode("LOAD" + i);
+			promo.setDiscountPercentage(5.0 + i % 20);
+			promo.setValidFrom(LocalDateTime.now().minusDays(1));
+			promo.setValidUntil(LocalDateTime.now().plusDays(30));
+			promos.add(promo);
+			promoCodes.add(promo.getCode());
+		}
+		promoCodeRepository.saveAll(promos);
+
+		for (int i = 0; i < SEED_ORDERS; i++) {
+			orderService.createOrder(randomOrder());
+		}
+		System.out.printf("Seeded %d products, %d promo codes and %d orders in %d ms%n",
+				PRODUCTS, PROMO_CODES, SEED_ORDERS, (System.nanoTime() - start) / 1_000_000);
+	}
+
+	// every thread picks endpoints at random with the mix weights until the time is up
+	private Map<String, Samples> run(Map<String, Integer> mix, int seconds) throws Exception {
+		String[] weighted = mix.entrySet().stream()
+				.flatMap(entry -> java.util.Collections.nCopies(entry.getValue(), entry.getKey()).stream())
+				.toArray(String[]::new);
+		long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		List<Future<Map<String, Samples>>> workers = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			workers.add(pool.submit(() -> {
+				Map<String, Samples> local = new LinkedHashMap<>();
+				mix.keySet().forEach(endpoint -> local.put(endpoint, new Samples()));
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				while (System.nanoTime() < deadline) {
+					String endpoint = weighted[random.nextInt(weighted.length)];
+					HttpRequest request = request(endpoint);
+					long begin = System.nanoTime();
+					int status;
+					try {
+						status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+					} catch (java.io.IOException e) {
+						status = -1;
+					}
+					local.get(endpoint).add(System.nanoTime() - begin, status >= 200 && status < 300);
+				}
+				return local;
+			}));
+		}
+
+		Map<String, Samples> merged = new LinkedHashMap<>();
+		mix.keySet().forEach(endpoint -> merged.put(endpoint, new Samples()));
+		for (Future<Map<String, Samples>> worker : workers) {
+			worker.get().forEach((endpoint, samples) -> merged.get(endpoint).addAll(samples));
+		}
+		pool.shutdown();
+		return merged;
+	}
+
+	private HttpRequest request(String endpoint) throws Exception {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		String path = switch (endpoint) {
+			case "product" -> "/api/products/" + randomProductId();
+			case "page" -> "/api/products?limit=20&after=" + randomProductId();
+			case "category" -> "/api/products/category/" + encode("Category " + random.nextInt(CATEGORIES));
+			case "search" -> "/api/products/search?q=" + SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)];
+			case "browse" -> "/api/products/browse?category=" + encode("Category " + random.nextInt(CATEGORIES))
+					+ "&minPrice=" + random.nextInt(50_000) + "&sort=price_asc&size=20";
+			case "checkout" -> "/api/orders";
+			default -> throw new IllegalArgumentException("unknown endpoint in load.mix: " + endpoint);
+		};
+		HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+				.timeout(Duration.ofSeconds(30));
+		if (endpoint.equals("checkout")) {
+			return builder.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(randomOrder())))
+					.build();
+		}
+		return builder.GET().build();
+	}
+
+	private OrderDTO randomOrder() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int lines = 1 + random.nextInt(5);
+		List<CartItemDTO> cartItems = new ArrayList<>(lines);
+		double originalPrice = 0.0;
+		for (int i = 0; i < lines; i++) {
+			double price = 100.0 + random.nextInt(1_000);
+			int quantity = 1 + random.nextInt(3);
+			cartItems.add(new CartItemDTO(randomProductId(), quantity, price));
+			originalPrice += price * quantity;
+		}
+
+		OrderDTO orderDTO = new OrderDTO();
+		orderDTO.setAddressLine1("1 Load Test Street");
+		orderDTO.setState("Benchmark");
+		orderDTO.setPincode("000000");
+		orderDTO.setOriginalPrice(originalPrice);
+		orderDTO.setCartItems(cartItems);
+		if (random.nextBoolean()) {
+			orderDTO.setPromoCode(promoCodes.get(random.nextInt(promoCodes.size())));
+		}
+		return orderDTO;
+	}
+
+	private Long randomProductId() {
+		return productIds.get(ThreadLocalRandom.current().nextInt(productIds.size()));
+	}
+
+	private static Map<String, Integer> parseMix(String mix) {
+		Map<String, Integer> weights = new LinkedHashMap<>();
+		for (String part : mix.split(",")) {
+			String[] endpointAndWeight = part.trim().split(":");
+			weights.put(endpointAndWeight[0], Integer.parseInt(endpointAndWeight[1]));
+		}
+		return weights;
+	}
+
+	private static String encode(String value) {
+		return URLEncoder.encode(value, StandardCharsets.UTF_8);
+	}
+
+	// nearest-rank percentile over sorted latencies
+	private static long percentile(long[] sorted, double p) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int rank = (int) Math.ceil(p * sorted.length);
+		return sorted[Math.max(0, rank - 1)];
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1_000_000.0;
+	}
+
+	// every latency of one endpoint, kept raw so p999 is exact
+	private static final class Samples {
+		private long[] latencies = new long[1024];
+		private int size;
+		private long errors;
+
+		void add(long latencyNanos, boolean ok) {
+			if (size == latencies.length) {
+				latencies = Arrays.copyOf(latencies, size * 2);
+			}
+			latencies[size++] = latencyNanos;
+			if (!ok) {
+				errors++;
+			}
+		}
+
+		void addAll(Samples other) {
+			for (int i = 0; i < other.size; i++) {
+				add(other.latencies[i], true);
+			}
+			errors += other.errors;
+		}
+
+		long[] sorted() {
+			long[] copy = Arrays.copyOf(latencies, size);
+			Arrays.sort(copy);
+			return copy;
+		}
+	}
+}
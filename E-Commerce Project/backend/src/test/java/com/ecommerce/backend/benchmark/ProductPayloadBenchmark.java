@@ -0,0 +1,103 @@
+package com.ecommerce.backend.benchmark;
+
+import com.ecommerce.backend.entity.Product;
+import com.ecommerce.backend.repository.ProductRepository;
+import com.ecommerce.backend.service.ProductService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// payload bytes and serialization time of a product list, full DTOs vs ?fields= and JSON vs CBOR
+// run with: mvn test -Pbenchmark -Dtest=ProductPayloadBenchmark
+@SpringBootTest
+@ActiveProfiles("benchmark")
+@Tag("benchmark")
+class ProductPayloadBenchmark {
+
+	private static final int PRODUCTS = 5_000;
+	private static final int ITERATIONS = 200;
+	private static final String GRID_FIELDS = "title,price,image,rating";
+	private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private RequestMappingHandlerAdapter handlerAdapter;
+
+	@Test
+	void payloadSizeAndSerializationTime() throws IOException {
+		loadProducts();
+		Object full = productService.getAllProducts();
+		Object sparse = productService.getProductFields(GRID_FIELDS, null);
+
+		report("full, json", full, MediaType.APPLICATION_JSON);
+		report("full, cbor", full, CBOR);
+		report("fields=" + GRID_FIELDS + ", json", sparse, MediaType.APPLICATION_JSON);
+		report("fields=" + GRID_FIELDS + ", cbor", sparse, CBOR);
+	}
+
+	private void loadProducts() {
+		List<Product> products = new ArrayList<>(PRODUCTS);
+		for (int i = 0; i < PRODUCTS; i++) {
+			Product product = new Product();
+			product.setTitle("Benchmark product " + i);
+			// descriptions in the real catalog run to a few hundred characters
+			product.setDescription("Synthetic product used by the payload benchmark. ".repeat(8));
+			product.setPrice(100.0 + i % 500);
+			product.setCategory("Category " + i % 20);
+			product.setImage("https://cdn.example.com/images/products/" + i + ".jpg");
+			product.setRatingRate(4.0);
+			product.setRatingCount(i % 1000);
+			products.add(product);
+		}
+		productRepository.saveAll(products);
+	}
+
+	// writes the body through the same converter spring mvc picks for the media type
+	private void report(String name, Object body, MediaType mediaType) throws IOException {
+		HttpMessageConverter<Object> converter = converterFor(body, mediaType);
+
+		int bytes = 0;
+		for (int i = 0; i < ITERATIONS / 4; i++) { // warm up
+			bytes = write(converter, body, mediaType);
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			write(converter, body, mediaType);
+		}
+		double micros = (System.nanoTime() - start) / 1_000.0 / ITERATIONS;
+		System.out.printf("%-42s %9d bytes %7d bytes/product %9.0f us per list%n",
+				name, bytes, bytes / PRODUCTS, micros);
+	}
+
+	private int write(HttpMessageConverter<Object> converter, Object body, MediaType mediaType) throws IOException {
+		MockHttpOutputMessage message = new MockHttpOutputMessage();
+		converter.write(body, mediaType, message);
+		return message.getBodyAsBytes().length;
+	}
+
+	@SuppressWarnings("unchecked")
+	private HttpMessageConverter<Object> converterFor(Object body, MediaType mediaType) {
+		for (HttpMessageConverter<?> converter : handlerAdapter.getMessageConverters()) {
+			if (converter.canWrite(body.getClass(), mediaType)) {
+				return (HttpMessageConverter<Object>) converter;
+			}
+		}
+		throw new HttpMessageNotWritableException("no converter for " + mediaType);
+	}
+}
@@ -0,0 +1,260 @@
+package com.ecommerce.backend.benchmark;
+
+import com.ecommerce.backend.BackendApplication;
+import com.ecommerce.backend.dto.CartItemDTO;
+import com.ecommerce.backend.dto.OrderDTO;
+import com.ecommerce.backend.entity.Product;
+import com.ecommerce.backend.entity.PromoCode;
+import com.ecommerce.backend.repository.ProductRepository;
+import com.ecommerce.backend.repository.PromoCodeRepository;
+import com.ecommerce.backend.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Boots the application once with the Hibernate second-level and query cache off, then once with it on, and drives
+// the endpoints it is meant for, one at a time, reporting throughput, latency and SQL statements per request:
+//   product   GET /api/products/{id}            entity cache
+//   category  GET /api/products/category/{c}    query cache plus entity cache
+//   related   GET /api/products/{id}/related    both, one lookup per co-purchased product
+//   checkout  POST /api/orders                  cart products by id, half of them with a promo code
+// The DTO-level catalog cache is switched off by default so every product read reaches Hibernate; run with
+// -Dl2.catalogCache=true to measure what the entity cache still adds behind it.
+// The embedded database answers in microseconds, against PostgreSQL over a network the gap is wider.
+// run with: mvn test -Pbenchmark -Dtest=SecondLevelCacheBenchmark
+// tune with -Dl2.threads=8 -Dl2.duration=10 -Dl2.products=10000 -Dl2.hotProducts=1000
+@Tag("benchmark")
+class SecondLevelCacheBenchmark {
+
+	private static final int PRODUCTS = Integer.getInteger("l2.products", 10_000);
+	// reads pick from the first hotProducts ids, a cache that holds the hot set is what is being measured
+	private static final int HOT_PRODUCTS = Integer.getInteger("l2.hotProducts", 1_000);
+	private static final int PROMO_CODES = Integer.getInteger("l2.promoCodes", 20);
+	private static final int SEED_ORDERS = Integer.getInteger("l2.orders", 2_000);
+	private static final int THREADS = Integer.getInteger("l2.threads", 8);
+	private static final int WARMUP_SECONDS = Integer.getInteger("l2.warmup", 3);
+	private static final int DURATION_SECONDS = Integer.getInteger("l2.duration", 10);
+	private static final boolean CATALOG_CACHE = Boolean.getBoolean("l2.catalogCache");
+
+	private static final int CATEGORIES = 20;
+	private static final List<String> ENDPOINTS = List.of("product", "category", "related", "checkout");
+
+	private final HttpClient client = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(5))
+			.build();
+
+	@Test
+	void cacheOffVersusOn() throws Exception {
+		run(false);
+		run(true);
+	}
+
+	private void run(boolean cached) throws Exception {
+		String mode = cached ? "cache on" : "cache off";
+		// command line arguments, unlike builder properties they take precedence over application.properties
+		List<String> args = new ArrayList<>(List.of(
+				"--server.port=0",
+				"--spring.datasource.url=jdbc:h2:mem:l2-" + cached + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+				"--spring.jpa.properties.hibernate.cache.use_second_level_cache=" + cached,
+				"--spring.jpa.properties.hibernate.cache.use_query_cache=" + cached,
+				"--spring.jpa.show-sql=false",
+				// generate_statistics logs a summary per session otherwise
+				"--logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=warn"));
+		if (!CATALOG_CACHE) {
+			args.add("--catalog.cache.ttl=0s");
+		}
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class)
+				.profiles("benchmark")
+				.run(args.toArray(String[]::new))) {
+			int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+			Fixture fixture = seed(context);
+			Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class)
+					.getStatistics();
+
+			System.out.printf("%n%s (%d threads, %d products, %d hot, catalog cache %s)%n", mode, THREADS, PRODUCTS,
+					HOT_PRODUCTS, CATALOG_CACHE ? "on" : "off");
+			System.out.printf("%-10s %9s %9s %9s %12s %10s %7s%n", "endpoint", "req/s", "p50 ms", "p99 ms",
+					"stmts/req", "hit ratio", "errors");
+			for (String endpoint : ENDPOINTS) {
+				drive(port, endpoint, fixture, context, WARMUP_SECONDS);
+				statistics.clear();
+				Result result = drive(port, endpoint, fixture, context, DURATION_SECONDS);
+				long hits = statistics.getSecondLevelCacheHitCount() + statistics.getQueryCacheHitCount();
+				long misses = statistics.getSecondLevelCacheMissCount() + statistics.getQueryCacheMissCount();
+				System.out.printf("%-10s %9.0f %9.2f %9.2f %12.2f %10s %7d%n", endpoint,
+						result.latencies.size() / (double) DURATION_SECONDS,
+						percentile(result.latencies, 0.50), percentile(result.latencies, 0.99),
+						statistics.getPrepareStatementCount() / (double) Math.max(1, result.latencies.size()),
+						hits + misses == 0 ? "-" : String.format("%.3f", hits / (double) (hits + misses)),
+						result.errors);
+			}
+		}
+	}
+
+	private Fixture seed(ConfigurableApplicationContext context) {
+		ProductRepository productRepository = context.getBean(ProductRepository.class);
+		List<Long> productIds = new ArrayList<>(PRODUCTS);
+		List<Product> batch = new ArrayList<>(1_000);
+		for (int i = 0; i < PRODUCTS; i++) {
+			Product product = new Product();
+			product.setTitle("Product " + i);
+			product.setDescription("Synthetic product for cache benchmarks");
+			product.setPrice(100.0 + (i * 37) % 100_000);
+			product.setCategory("Category " + i % CATEGORIES);
+			product.setImage("https://cdn.example.com/images/products/" + i + ".jpg");
+			product.setRatingRate(1.0 + (i % 40) / 10.0);
+			product.setRatingCount(i % 1000);
+			batch.add(product);
+			if (batch.size() == 1_000 || i == PRODUCTS - 1) {
+				productRepository.saveAll(batch).forEach(saved -> productIds.add(saved.getId()));
+				batch.clear();
+			}
+		}
+
+		List<PromoCode> promos = new ArrayList<>(PROMO_CODES);
+		for (int i = 0; i < PROMO_CODES; i++) {
+			PromoCode promo = new PromoCode();
+			promo.setCode("CACHE" + i);
+			promo.setDiscountPercentage(5.0 + i % 20);
+			promo.setValidFrom(LocalDateTime.now().minusDays(1));
+			promo.setValidUntil(LocalDateTime.now().plusDays(30));
+			promos.add(promo);
+		}
+		List<String> promoCodes = context.getBean(PromoCodeRepository.class).saveAll(promos).stream()
+				.map(PromoCode::getCode)
+				.toList();
+
+		// orders give the related-products endpoint co-purchase neighbours to look up
+		Fixture fixture = new Fixture(productIds.subList(0, Math.min(HOT_PRODUCTS, productIds.size())), promoCodes);
+		OrderService orderService = context.getBean(OrderService.class);
+		for (int i = 0; i < SEED_ORDERS; i++) {
+			orderService.createOrder(fixture.randomOrder());
+		}
+		return fixture;
+	}
+
+	// closed loop: THREADS workers send back-to-back requests to one endpoint for the given time
+	private Result drive(int port, String endpoint, Fixture fixture, ConfigurableApplicationContext context,
+						 int seconds) throws Exception {
+		ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+		List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+		AtomicLong errors = new AtomicLong();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		List<Future<?>> workers = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			workers.add(pool.submit(() -> {
+				while (System.nanoTime() < deadline) {
+					HttpRequest request = request(port, endpoint, fixture, objectMapper);
+					long begin = System.nanoTime();
+					int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+					if (status >= 200 && status < 300) {
+						latencies.add(System.nanoTime() - begin);
+					} else {
+						errors.incrementAndGet();
+					}
+				}
+				return null;
+			}));
+		}
+		for (Future<?> worker : workers) {
+			worker.get();
+		}
+		pool.shutdown();
+
+		List<Long> sorted;
+		synchronized (latencies) {
+			sorted = new ArrayList<>(latencies);
+		}
+		Collections.sort(sorted);
+		return new Result(sorted, errors.get());
+	}
+
+	private HttpRequest request(int port, String endpoint, Fixture fixture, ObjectMapper objectMapper)
+			throws Exception {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		String path = switch (endpoint) {
+			case "product" -> "/api/products/" + fixture.randomProductId();
+			case "category" -> "/api/products/category/"
+					+ URLEncoder.encode("Category " + random.nextInt(CATEGORIES), StandardCharsets.UTF_8);
+			case "related" -> "/api/products/" + fixture.randomProductId() + "/related";
+			case "checkout" -> "/api/orders";
+			default -> throw new IllegalArgumentException("unknown endpoint: " + endpoint);
+		};
+		HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+				.timeout(Duration.ofSeconds(30));
+		if (endpoint.equals("checkout")) {
+			return builder.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(fixture.randomOrder())))
+					.build();
+		}
+		return builder.GET().build();
+	}
+
+	private double percentile(List<Long> sorted, double quantile) {
+		if (sorted.isEmpty()) {
+			return 0;
+		}
+		int index = (int) Math.ceil(quantile * sorted.size()) - 1;
+		return sorted.get(Math.max(0, index)) / 1e6;
+	}
+
+	private record Result(List<Long> latencies, long errors) {
+	}
+
+	private record Fixture(List<Long> hotProductIds, List<String> promoCodes) {
+
+		Long randomProductId() {
+			return hotProductIds.get(ThreadLocalRandom.current().nextInt(hotProductIds.size()));
+		}
+
+		OrderDTO randomOrder() {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			int lines = 1 + random.nextInt(5);
+			List<CartItemDTO> cartItems = new ArrayList<>(lines);
+			double originalPrice = 0.0;
+			for (int i = 0; i < lines; i++) {
+				double price = 100.0 + random.nextInt(1_000);
+				int quantity = 1 + random.nextInt(3);
+				cartItems.add(new CartItemDTO(randomProductId(), quantity, price));
+				originalPrice += price * quantity;
+			}
+
+			OrderDTO orderDTO = new OrderDTO();
+			orderDTO.setAddressLine1("1 Cache Benchmark Street");
+			orderDTO.setState("Benchmark");
+			orderDTO.setPincode("000000");
+			orderDTO.setOriginalPrice(originalPrice);
+			orderDTO.setCartItems(cartItems);
+			if (random.nextBoolean()) {
+				orderDTO.setPromoCode(promoCodes.get(random.nextInt(promoCodes.size())));
+			}
+			return orderDTO;
+		}
+	}
+}
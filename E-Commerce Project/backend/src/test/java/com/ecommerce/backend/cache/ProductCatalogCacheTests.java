@@ -0,0 +1,79 @@
+package com.ecommerce.backend.cache;
+
+import com.ecommerce.backend.dto.PriceBucketCountDTO;
+import com.ecommerce.backend.dto.ProductDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCatalogCacheTests {
+
+	private ProductDTO product(long id, String category) {
+		return new ProductDTO(id, "title " + id, "description", 10.0, category, null, null);
+	}
+
+	@Test
+	void invalidateDropsProductListingAndCategories() {
+		ProductCatalogCache cache = new ProductCatalogCache(10, 10, Duration.ofMinutes(5));
+		long generation = cache.generation();
+		cache.putProduct(1L, product(1, "Electronics"), generation);
+		cache.putCategory("Electronics", List.of(product(1, "Electronics")), generation);
+		cache.putCategory("Footwear", List.of(product(2, "Footwear")), generation);
+		cache.putAllProducts(List.of(product(1, "Electronics"), product(2, "Footwear")), generation);
+		cache.putFacetCounts(List.of(new PriceBucketCountDTO("Electronics", 0, 1L)), generation);
+		assertNotNull(cache.getFacetCounts());
+
+		cache.invalidate(1L, "Electronics");
+
+		assertNull(cache.getProduct(1L));
+		assertNull(cache.getCategory("Electronics"));
+		assertNull(cache.getAllProducts());
+		assertNull(cache.getFacetCounts());
+		assertNotNull(cache.getCategory("Footwear"));
+	}
+
+	@Test
+	void loadStartedBeforeWriteIsNotStored() {
+		ProductCatalogCache cache = new ProductCatalogCache(10, 10, Duration.ofMinutes(5));
+		long generation = cache.generation();
+		cache.invalidate(1L, "Electronics");
+		cache.putProduct(1L, product(1, "Electronics"), generation);
+
+		assertNull(cache.getProduct(1L));
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedAndExpiredEntries() {
+		ProductCatalogCache cache = new ProductCatalogCache(2, 10, Duration.ofMinutes(5));
+		long generation = cache.generation();
+		cache.putProduct(1L, product(1, "A"), generation);
+		cache.putProduct(2L, product(2, "A"), generation);
+		cache.getProduct(1L);
+		cache.putProduct(3L, product(3, "A"), generation);
+
+		assertNotNull(cache.getProduct(1L));
+		assertNull(cache.getProduct(2L));
+		assertEquals(1L, cache.stats().get("evictions"));
+
+		ProductCatalogCache expiring = new ProductCatalogCache(2, 10, Duration.ZERO);
+		expiring.putProduct(1L, product(1, "A"), expiring.generation());
+		assertNull(expiring.getProduct(1L));
+	}
+
+	@Test
+	void entriesExpireWithTheirPeriod() throws InterruptedException {
+		ProductCatalogCache cache = new ProductCatalogCache(10, 10, Duration.ofMillis(200));
+		long period = cache.period();
+		cache.putProduct(1L, product(1, "A"), cache.generation());
+		assertNotNull(cache.getProduct(1L));
+
+		// whenever the entry was stored within its period, it is gone once the period (and so the ETag) changes
+		while (cache.period() == period) {
+			Thread.sleep(10);
+		}
+		assertNull(cache.getProduct(1L));
+	}
+}
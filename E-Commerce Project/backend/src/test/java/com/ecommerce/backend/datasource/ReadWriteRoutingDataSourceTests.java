@@ -0,0 +1,101 @@
+package com.ecommerce.backend.datasource;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// two in-memory databases stand in for the primary and the replica; each query reports which one answered
+class ReadWriteRoutingDataSourceTests {
+
+	private static final String PRODUCT_READ = "com.ecommerce.backend.service.ProductService.getAllProducts";
+	private static final String ORDER_READ = "com.ecommerce.backend.service.OrderService.getOrderById";
+	private static final String REPOSITORY_READ = "org.springframework.data.jpa.repository.support.SimpleJpaRepository.findById";
+
+	private final ReadYourWritesWindow readYourWrites = new ReadYourWritesWindow(Duration.ofMinutes(1));
+	private final LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+			new ReadWriteRoutingDataSource(database("PRIMARY"), database("REPLICA"), readYourWrites));
+	private final DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+	@Test
+	void readOnlyServiceTransactionsGoToTheReplica() {
+		assertEquals("REPLICA", answeredBy(PRODUCT_READ, true));
+		assertEquals("REPLICA", answeredBy(ORDER_READ, true));
+	}
+
+	@Test
+	void writesAndRepositoryDefaultsStayOnThePrimary() {
+		assertEquals("PRIMARY", answeredBy(PRODUCT_READ, false));
+		assertEquals("PRIMARY", answeredBy(REPOSITORY_READ, true));
+		assertEquals("PRIMARY", new JdbcTemplate(dataSource).queryForObject("select database()", String.class));
+	}
+
+	@Test
+	void clientReadsStayOnThePrimaryRightAfterItsOwnWrite() {
+		MockHttpServletResponse written = request("POST", null);
+		Cookie cookie = written.getCookie(ReadYourWritesWindow.COOKIE);
+		assertNotNull(cookie);
+		assertEquals("PRIMARY", answeredBy(ORDER_READ, true));
+
+		request("GET", cookie);
+		assertEquals("PRIMARY", answeredBy(ORDER_READ, true));
+		assertEquals("PRIMARY", answeredBy(PRODUCT_READ, true));
+
+		request("GET", null); // another client
+		assertEquals("REPLICA", answeredBy(ORDER_READ, true));
+	}
+
+	@Test
+	void readYourWritesWindowCloses() throws InterruptedException {
+		ReadYourWritesWindow window = new ReadYourWritesWindow(Duration.ofMillis(50));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		window.recordWrite(response);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders/1");
+		request.setCookies(response.getCookie(ReadYourWritesWindow.COOKIE));
+		assertTrue(window.isOpen(request));
+
+		Thread.sleep(60);
+		assertFalse(window.isOpen(request));
+	}
+
+	@AfterEach
+	void clearRequest() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	// runs the interceptor for a request to /api/orders, which stays bound to the thread like during a real request
+	private MockHttpServletResponse request(String method, Cookie cookie) {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/orders");
+		if (cookie != null) {
+			request.setCookies(cookie);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+		readYourWrites.preHandle(request, response, null);
+		return response;
+	}
+
+	private String answeredBy(String transactionName, boolean readOnly) {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.setName(transactionName);
+		transaction.setReadOnly(readOnly);
+		return transaction.execute(tx ->
+				new JdbcTemplate(dataSource).queryForObject("select database()", String.class));
+	}
+
+	private DriverManagerDataSource database(String name) {
+		return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+	}
+}
@@ -0,0 +1,83 @@
+package com.ecommerce.backend.index;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTests {
+
+	@Test
+	void neverRejectsAnAddedKey() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		LongStream.rangeClosed(1, 10_000).forEach(filter::add);
+		filter.add("SAVE10");
+
+		assertTrue(LongStream.rangeClosed(1, 10_000).allMatch(filter::mightContain));
+		assertTrue(filter.mightContain("SAVE10"));
+		// a key whose bits were all set already (a false positive at the time) is not counted
+		assertEquals(10_001.0, filter.insertions(), 100.0);
+	}
+
+	@Test
+	void falsePositiveRateStaysNearTheTarget() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		LongStream.rangeClosed(1, 10_000).forEach(filter::add);
+
+		long falsePositives = LongStream.rangeClosed(1_000_001, 1_100_000).filter(filter::mightContain).count();
+		double rate = falsePositives / 100_000.0;
+		assertTrue(rate < 0.02, "false-positive rate " + rate);
+		assertEquals(0.01, filter.expectedFalsePositiveRate(), 0.005);
+		assertFalse(filter.mightContain("WELCOME"));
+	}
+
+	@Test
+	void existenceFilterPassesEverythingUntilBuilt() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		ExistenceFilter ids = new ExistenceFilter("product-ids", 0.01, Duration.ofMinutes(1), registry);
+		assertTrue(ids.mightContain(42L));
+
+		ids.rebuild(3, filter -> LongStream.rangeClosed(1, 3).forEach(filter::add));
+		ids.add(4L);
+		assertTrue(ids.mightContain(4L));
+		assertFalse(ids.mightContain(1_000_000L));
+		ids.recordFalsePositive();
+
+		assertEquals(true, ids.stats().get("current"));
+		assertEquals(4L, ids.stats().get("keys"));
+		assertEquals(1L, ids.stats().get("rejected"));
+		assertEquals(0.5, registry.get("existence.filter.false.positive.rate").tag("filter", "product-ids")
+				.gauge().value());
+	}
+
+	@Test
+	void keysAddedDuringARebuildSurviveTheSwap() {
+		ExistenceFilter codes = new ExistenceFilter("promo-codes", 0.01, Duration.ofMinutes(1), new SimpleMeterRegistry());
+		codes.rebuild(1, filter -> {
+			filter.add("SAVE10");
+			codes.add("NEW20");
+		});
+
+		assertTrue(codes.mightContain("SAVE10"));
+		assertTrue(codes.mightContain("NEW20"));
+		assertFalse(codes.needsRebuild());
+	}
+
+	@Test
+	void staleFilterLetsEveryKeyThrough() throws InterruptedException {
+		ExistenceFilter ids = new ExistenceFilter("product-ids", 0.01, Duration.ofMillis(50), new SimpleMeterRegistry());
+		ids.rebuild(1, filter -> filter.add(1L));
+		assertFalse(ids.mightContain(2L));
+
+		Thread.sleep(100); // no sync since: a key created elsewhere meanwhile must not read as absent
+		assertFalse(ids.isCurrent());
+		assertTrue(ids.mightContain(2L));
+
+		ids.markSynced(System.nanoTime());
+		assertFalse(ids.mightContain(2L));
+		assertEquals(2L, ids.stats().get("rejected"));
+	}
+}
@@ -0,0 +1,56 @@
+package com.ecommerce.backend.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoPurchaseIndexTests {
+
+	private void record(CoPurchaseIndex index, int times, Long... productIds) {
+		for (int i = 0; i < times; i++) {
+			index.recordOrder(List.of(productIds));
+		}
+	}
+
+	@Test
+	void ranksNeighboursByPairCount() {
+		CoPurchaseIndex index = new CoPurchaseIndex(2, 10, 50);
+		record(index, 1, 1L, 2L, 3L, 4L);
+		record(index, 2, 1L, 3L);
+		record(index, 1, 1L, 4L);
+		record(index, 1, 1L, 1L, 3L); // a product twice in one order counts once
+
+		// neighbours of 1: 3 four times, 4 twice, 2 once; only the top 2 are published
+		assertEquals(List.of(3L, 4L), index.topNeighbours(1L));
+		assertEquals(1L, index.topNeighbours(3L).get(0));
+		assertEquals(List.of(), index.topNeighbours(99L));
+	}
+
+	@Test
+	void newNeighbourTakesOverTheLeastFrequentSlot() {
+		CoPurchaseIndex index = new CoPurchaseIndex(2, 2, 50);
+		record(index, 3, 1L, 2L);
+		record(index, 1, 1L, 3L);
+		// 1 tracks two neighbours already: 4 replaces 3 (count 1) and inherits its count, so it ranks with 2
+		record(index, 1, 1L, 4L);
+
+		assertEquals(List.of(2L, 4L), index.topNeighbours(1L));
+	}
+
+	@Test
+	void removedProductLeavesEveryNeighbourList() {
+		CoPurchaseIndex index = new CoPurchaseIndex(2, 2, 50);
+		record(index, 3, 1L, 2L);
+		record(index, 2, 1L, 3L);
+
+		index.removeProduct(2L);
+		assertEquals(List.of(3L), index.topNeighbours(1L));
+		assertEquals(List.of(), index.topNeighbours(2L));
+
+		// the freed slot is taken without inheriting a count, 5 ranks below 3
+		record(index, 1, 1L, 5L);
+		assertEquals(List.of(3L, 5L), index.topNeighbours(1L));
+	}
+}
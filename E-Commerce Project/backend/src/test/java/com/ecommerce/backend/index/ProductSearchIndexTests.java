@@ -0,0 +1,51 @@
+package com.ecommerce.backend.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTests {
+
+	private ProductSearchIndex index() {
+		ProductSearchIndex index = new ProductSearchIndex();
+		index.index(1L, "iPhone 14 Pro", "Electronics", "Latest Apple smartphone with A16 Bionic chip");
+		index.index(2L, "Samsung Galaxy S23", "Electronics", "Flagship Android phone with amazing camera");
+		index.index(3L, "Nike Air Max 270", "Footwear", "Comfortable running shoes for daily wear");
+		return index;
+	}
+
+	@Test
+	void matchesExactPrefixAndTypos() {
+		ProductSearchIndex index = index();
+
+		assertEquals(List.of(3L), index.search("running shoes", 10));
+		assertEquals(List.of(2L), index.search("gala", 10)); // prefix of the last term
+		assertEquals(List.of(2L), index.search("samsnug", 10)); // transposition
+		assertEquals(List.of(1L), index.search("iphone smartphne", 10)); // deletion
+		assertTrue(index.search("phone gala", 10).contains(2L));
+		assertEquals(List.of(), index.search("the", 10));
+	}
+
+	@Test
+	void ranksTitleMatchesFirst() {
+		ProductSearchIndex index = index();
+		index.index(4L, "Phone case", "Accessories", "Fits most phones");
+
+		// "iphone" is one edit away from "phone", a title match still outranks an exact description match
+		assertEquals(List.of(4L, 1L, 2L), index.search("phone", 10));
+	}
+
+	@Test
+	void updateAndRemoveReplaceIndexedTerms() {
+		ProductSearchIndex index = index();
+		index.index(3L, "Adidas Ultraboost", "Footwear", "Running shoes");
+		assertEquals(List.of(), index.search("nike", 10));
+		assertEquals(List.of(3L), index.search("adidas", 10));
+
+		index.remove(3L);
+		assertEquals(List.of(), index.search("adidas", 10));
+		assertEquals(2, index.size());
+	}
+}
@@ -0,0 +1,148 @@
+package com.ecommerce.backend.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockLedgerTests {
+
+	// products.stock with the conditional UPDATEs of ProductRepository
+	private static final class InMemoryStockStore implements StockLedger.StockStore {
+		final Map<Long, Integer> stock = new ConcurrentHashMap<>();
+		final AtomicInteger takes = new AtomicInteger();
+
+		InMemoryStockStore with(Long productId, int units) {
+			stock.put(productId, units);
+			return this;
+		}
+
+		@Override
+		public Integer stock(Long productId) {
+			return stock.get(productId);
+		}
+
+		@Override
+		public boolean take(Long productId, int units) {
+			takes.incrementAndGet();
+			boolean[] taken = {false};
+			stock.computeIfPresent(productId, (id, left) -> {
+				taken[0] = left >= units;
+				return taken[0] ? left - units : left;
+			});
+			return taken[0];
+		}
+
+		@Override
+		public boolean giveBack(Long productId, int units) {
+			return stock.computeIfPresent(productId, (id, left) -> left + units) != null;
+		}
+	}
+
+	@Test
+	void concurrentCheckoutsOnTwoInstancesNeverOversell() throws InterruptedException {
+		InMemoryStockStore store = new InMemoryStockStore().with(1L, 1_000);
+		StockLedger[] instances = {new StockLedger(store, 20), new StockLedger(store, 20)};
+		AtomicInteger sold = new AtomicInteger();
+		ExecutorService pool = Executors.newFixedThreadPool(16);
+		for (int i = 0; i < 5_000; i++) {
+			StockLedger ledger = instances[i % 2];
+			pool.execute(() -> {
+				if (ledger.tryReserve(1L, 1)) {
+					sold.incrementAndGet();
+				}
+			});
+		}
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+		assertEquals(1_000, sold.get());
+		assertEquals(0, store.stock(1L));
+		assertEquals(0, instances[0].held(1L) + instances[1].held(1L));
+		// the row is updated once per block, not once per checkout
+		assertTrue(store.takes.get() < 200, "takes " + store.takes.get());
+	}
+
+	@Test
+	void cartIsReservedAllOrNothing() {
+		InMemoryStockStore store = new InMemoryStockStore().with(1L, 5).with(2L, 1);
+		StockLedger ledger = new StockLedger(store, 10);
+
+		assertEquals(2L, ledger.tryReserveAll(Map.of(1L, 3, 2L, 2)));
+		assertEquals(5, store.stock(1L) + ledger.held(1L));
+		assertEquals(1, store.stock(2L) + ledger.held(2L));
+
+		assertNull(ledger.tryReserveAll(Map.of(1L, 3, 2L, 1)));
+		assertEquals(2, store.stock(1L) + ledger.held(1L));
+		assertEquals(0, store.stock(2L) + ledger.held(2L));
+	}
+
+	@Test
+	void untrackedProductsAreAlwaysAvailable() {
+		StockLedger ledger = new StockLedger(new InMemoryStockStore(), 10);
+
+		assertTrue(ledger.tryReserve(1L, 1_000_000));
+		assertNull(ledger.held(1L));
+	}
+
+	@Test
+	void claimsBlocksAndTakesTheRestWhenLessThanABlockIsLeft() {
+		InMemoryStockStore store = new InMemoryStockStore().with(1L, 25);
+		StockLedger ledger = new StockLedger(store, 10);
+
+		assertTrue(ledger.tryReserve(1L, 1));
+		assertEquals(15, store.stock(1L));
+		assertEquals(9, ledger.held(1L));
+
+		assertTrue(ledger.tryReserve(1L, 9));
+		assertTrue(ledger.tryReserve(1L, 1));
+		assertEquals(5, store.stock(1L));
+
+		// 9 held, 12 wanted: a block of 10 is not there, the last 5 are taken instead
+		assertTrue(ledger.tryReserve(1L, 12));
+		assertEquals(0, store.stock(1L));
+		assertEquals(2, ledger.held(1L));
+		assertFalse(ledger.tryReserve(1L, 3));
+	}
+
+	@Test
+	void unusedUnitsAndRestocksReachTheOtherInstance() {
+		InMemoryStockStore store = new InMemoryStockStore().with(1L, 10);
+		StockLedger first = new StockLedger(store, 10);
+		StockLedger second = new StockLedger(store, 10);
+
+		assertTrue(first.tryReserve(1L, 1));
+		assertFalse(second.tryReserve(1L, 1)); // the first instance holds the other 9
+
+		first.returnUnused(); // still selling: keeps its block
+		assertEquals(0, store.stock(1L));
+		first.returnUnused(); // idle since: hands it back
+		assertEquals(9, store.stock(1L));
+
+		second.returnUnused(); // forgets that it found the product sold out
+		assertTrue(second.tryReserve(1L, 9));
+		assertFalse(second.tryReserve(1L, 1));
+
+		store.giveBack(1L, 5); // restocked through the first instance
+		second.stockAdded(1L);
+		assertTrue(second.tryReserve(1L, 5));
+	}
+
+	@Test
+	void releasedUnitsGoBackOnShutdown() {
+		InMemoryStockStore store = new InMemoryStockStore().with(1L, 10);
+		StockLedger ledger = new StockLedger(store, 4);
+		ledger.tryReserve(1L, 3);
+		ledger.release(1L, 3); // cancelled
+
+		ledger.returnAll();
+		assertEquals(10, store.stock(1L));
+		assertEquals(0, ledger.held(1L));
+	}
+}
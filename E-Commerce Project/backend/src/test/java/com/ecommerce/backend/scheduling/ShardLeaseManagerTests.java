@@ -0,0 +1,146 @@
+package com.ecommerce.backend.scheduling;
+
+import com.ecommerce.backend.repository.SchedulerLeaseRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// two or three ShardLeaseManagers against the same embedded database stand in for separate nodes
+@DataJpaTest(properties = {
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ShardLeaseManagerTests {
+
+	private static final Duration TTL = Duration.ofSeconds(30);
+
+	@Autowired
+	private SchedulerLeaseRepository leaseRepository;
+
+	private final MutableClock clock = new MutableClock();
+	private final List<ShardsAcquiredEvent> events = new ArrayList<>();
+
+	@Test
+	void shardsSpreadEvenlyAsNodesJoin() {
+		leaseRepository.deleteAll();
+		ShardLeaseManager a = node("a");
+		a.rebalance();
+		assertEquals(16, a.ownedShards().size());
+		assertEquals(16, events.get(0).shards().size());
+
+		ShardLeaseManager b = node("b");
+		b.rebalance(); // nothing free yet
+		a.rebalance(); // a sees two live nodes and releases half
+		b.rebalance();
+		assertEquals(8, a.ownedShards().size());
+		assertEquals(8, b.ownedShards().size());
+		assertDisjointAndComplete(16, a.ownedShards(), b.ownedShards());
+
+		ShardLeaseManager c = node("c");
+		for (int round = 0; round < 3; round++) {
+			c.rebalance();
+			a.rebalance();
+			b.rebalance();
+		}
+		assertDisjointAndComplete(16, a.ownedShards(), b.ownedShards(), c.ownedShards());
+		for (ShardLeaseManager node : List.of(a, b, c)) {
+			assertTrue(node.ownedShards().size() >= 5 && node.ownedShards().size() <= 6);
+		}
+	}
+
+	@Test
+	void expiredLeasesAreTakenOverAndNeverDoubleOwned() {
+		leaseRepository.deleteAll();
+		ShardLeaseManager a = node("a");
+		ShardLeaseManager b = node("b");
+		a.rebalance();
+		b.rebalance();
+		a.rebalance();
+		b.rebalance();
+
+		// a stops renewing; it stops trusting its leases before they expire for b
+		clock.advance(TTL.multipliedBy(2).dividedBy(3).plusSeconds(1));
+		assertTrue(a.ownedShards().isEmpty());
+		b.rebalance();
+		assertEquals(8, b.ownedShards().size());
+
+		clock.advance(TTL);
+		b.rebalance();
+		assertEquals(16, b.ownedShards().size());
+
+		// a comes back: its renewals fail and it only gets shards that b lets go
+		a.rebalance();
+		assertTrue(a.ownedShards().isEmpty());
+		b.rebalance();
+		a.rebalance();
+		assertDisjointAndComplete(16, a.ownedShards(), b.ownedShards());
+	}
+
+	@Test
+	void releaseOnShutdownHandsShardsOverImmediately() {
+		leaseRepository.deleteAll();
+		ShardLeaseManager a = node("a");
+		ShardLeaseManager b = node("b");
+		a.rebalance();
+		b.rebalance();
+
+		a.releaseAll();
+		b.rebalance();
+		assertEquals(16, b.ownedShards().size());
+	}
+
+	private ShardLeaseManager node(String id) {
+		return new ShardLeaseManager(leaseRepository, event -> events.add((ShardsAcquiredEvent) event), clock, 16,
+				TTL, id);
+	}
+
+	@SafeVarargs
+	private void assertDisjointAndComplete(int shardCount, Set<Integer>... owned) {
+		Set<Integer> all = new HashSet<>();
+		int total = 0;
+		for (Set<Integer> shards : owned) {
+			all.addAll(shards);
+			total += shards.size();
+		}
+		assertEquals(shardCount, all.size());
+		assertEquals(shardCount, total, "a shard is owned by two nodes");
+	}
+
+	private static class MutableClock extends Clock {
+		private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+		void advance(Duration duration) {
+			now = now.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package com.ecommerce.backend.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTests {
+
+	@Test
+	void firesInDeadlineOrderAndNeverEarly() {
+		TimingWheel<Long, String> wheel = new TimingWheel<>(1_000, 8, 0);
+		wheel.schedule(1L, 2_500, "a");
+		wheel.schedule(2L, 1_200, "b");
+
+		assertEquals(List.of(2L), wheel.advance(2_000).stream().map(TimingWheel.Timer::key).toList());
+		assertTrue(wheel.advance(2_999).isEmpty());
+		assertEquals(List.of(1L), wheel.advance(3_000).stream().map(TimingWheel.Timer::key).toList());
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void farDeadlinesCascadeThroughOverflowLevels() {
+		// level 0 spans 8 s, level 1 64 s, level 2 512 s
+		TimingWheel<Long, String> wheel = new TimingWheel<>(1_000, 8, 0);
+		Random random = new Random(42);
+		List<Long> deadlines = new ArrayList<>();
+		for (long key = 0; key < 2_000; key++) {
+			long deadline = 1 + random.nextInt(3_600_000);
+			deadlines.add(deadline);
+			wheel.schedule(key, deadline, "x");
+		}
+
+		int fired = 0;
+		for (long now = 0; now <= 3_605_000; now += 7_000) {
+			for (TimingWheel.Timer<Long, String> timer : wheel.advance(now)) {
+				assertTrue(timer.deadlineMs() <= now, "fired early");
+				assertTrue(now - timer.deadlineMs() < 7_000 + 1_000, "fired late");
+				fired++;
+			}
+		}
+		assertEquals(deadlines.size(), fired);
+		assertEquals(Long.MAX_VALUE, wheel.nextExpiration());
+	}
+
+	@Test
+	void rescheduleReplacesAndCancelRemoves() {
+		TimingWheel<Long, String> wheel = new TimingWheel<>(1_000, 8, 0);
+		wheel.schedule(1L, 5_000, "PENDING");
+		wheel.schedule(1L, 100_000, "SHIPPED");
+		wheel.schedule(2L, 5_000, "PENDING");
+		assertTrue(wheel.cancel(2L));
+		assertFalse(wheel.cancel(2L));
+
+		assertTrue(wheel.advance(10_000).isEmpty());
+		List<TimingWheel.Timer<Long, String>> due = wheel.advance(100_000);
+		assertEquals(1, due.size());
+		assertEquals("SHIPPED", due.get(0).value());
+	}
+
+	@Test
+	void pastDeadlinesAreDueImmediately() {
+		TimingWheel<Long, String> wheel = new TimingWheel<>(1_000, 8, 50_000);
+		wheel.schedule(1L, 10_000, "PENDING");
+
+		assertEquals(Long.MIN_VALUE, wheel.nextExpiration());
+		assertEquals(1, wheel.advance(50_000).size());
+	}
+
+	@Test
+	void idleWheelReportsNextBucketInsteadOfTicking() {
+		TimingWheel<Long, String> wheel = new TimingWheel<>(1_000, 8, 0);
+		assertEquals(Long.MAX_VALUE, wheel.nextExpiration());
+
+		wheel.schedule(1L, 7_200_000, "PENDING");
+		long next = wheel.nextExpiration();
+		assertTrue(next > 0 && next <= 7_200_000);
+		assertTrue(wheel.advance(next - 1).isEmpty());
+	}
+}
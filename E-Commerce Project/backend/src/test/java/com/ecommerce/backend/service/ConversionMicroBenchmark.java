@@ -0,0 +1,139 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.dto.OrderDTO;
+import com.ecommerce.backend.dto.ProductDTO;
+import com.ecommerce.backend.entity.Order;
+import com.ecommerce.backend.entity.OrderItem;
+import com.ecommerce.backend.entity.Product;
+import com.ecommerce.backend.entity.PromoCode;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JMH microbenchmarks for the hot conversion and pricing paths, no Spring context or database involved.
+// Lives in the service package because the conversions are package-private.
+// run with: mvn test -Pbenchmark -Dtest=ConversionMicroBenchmark
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversionMicroBenchmark {
+
+	// the conversions only read their argument, none of the collaborators are touched
+	private final ProductService productService = new ProductService(null, null, null, null, null, null);
+	private final OrderService orderService = new OrderService(null, null, null, null, null, null, null, null, null, 5000);
+	private final PromoCodeService promoCodeService = new PromoCodeService(null, null, null);
+
+	private Product product;
+	private PromoCode promoCode;
+
+	@Setup
+	public void setUp() {
+		product = product(1);
+		promoCode = promoCode();
+	}
+
+	@Benchmark
+	public ProductDTO productToDto() {
+		return productService.convertToDto(product);
+	}
+
+	@Benchmark
+	public OrderDTO orderToDto(Orders orders) {
+		return orderService.convertToDto(orders.order);
+	}
+
+	@Benchmark
+	public Double calculateDiscount() {
+		return promoCodeService.calculateDiscount(promoCode, 12_345.0);
+	}
+
+	@Test
+	void runMicroBenchmarks() throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(ConversionMicroBenchmark.class.getName())
+				.build())
+				.run();
+	}
+
+	// orders of different sizes, conversion cost grows with the number of lines
+	@State(Scope.Benchmark)
+	public static class Orders {
+
+		@Param({"1", "10", "100"})
+		public int orderLines;
+
+		Order order;
+
+		@Setup
+		public void setUp() {
+			order = new Order();
+			order.setId(1L);
+			order.setAddressLine1("1 Benchmark Street");
+			order.setState("Benchmark");
+			order.setPincode("000000");
+			order.setPromoCode(promoCode());
+			List<OrderItem> items = new ArrayList<>(orderLines);
+			double originalPrice = 0.0;
+			for (int i = 0; i < orderLines; i++) {
+				OrderItem item = new OrderItem();
+				item.setId((long) i);
+				item.setOrder(order);
+				item.setProduct(product(i));
+				item.setQuantity(1 + i % 3);
+				item.setPrice(item.getProduct().getPrice());
+				item.setTotalPrice(item.getPrice() * item.getQuantity());
+				originalPrice += item.getTotalPrice();
+				items.add(item);
+			}
+			order.setOrderItems(items);
+			order.setOriginalPrice(originalPrice);
+			order.setDiscountAmount(originalPrice / 10);
+			order.setFinalPrice(originalPrice - order.getDiscountAmount());
+		}
+	}
+
+	private static PromoCode promoCode() {
+		PromoCode promoCode = new PromoCode();
+		promoCode.setId(1L);
+		promoCode.setCode("SAVE10");
+		promoCode.setDiscountPercentage(10.0);
+		promoCode.setValidFrom(LocalDateTime.now().minusDays(1));
+		promoCode.setValidUntil(LocalDateTime.now().plusDays(30));
+		return promoCode;
+	}
+
+	private static Product product(long id) {
+		Product product = new Product();
+		product.setId(id);
+		product.setTitle("Benchmark product " + id);
+		product.setDescription("Synthetic product used by the conversion benchmark");
+		product.setPrice(100.0 + id % 500);
+		product.setCategory("Category " + id % 20);
+		product.setImage("https://cdn.example.com/images/products/" + id + ".jpg");
+		product.setRatingRate(4.0);
+		product.setRatingCount((int) (id % 1000));
+		return product;
+	}
+}
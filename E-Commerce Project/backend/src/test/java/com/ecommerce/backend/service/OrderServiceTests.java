@@ -0,0 +1,76 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.entity.Order;
+import com.ecommerce.backend.index.CoPurchaseIndex;
+import com.ecommerce.backend.repository.OrderRepository;
+import com.ecommerce.backend.repository.ProductRepository;
+import com.ecommerce.backend.repository.PromoCodeRepository;
+import com.ecommerce.backend.scheduling.ShardLeaseManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.ArrayList;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OrderServiceTests {
+
+	private OrderRepository orderRepository;
+	private StockService stockService;
+	private OrderService orderService;
+
+	@BeforeEach
+	void setUp() {
+		orderRepository = mock(OrderRepository.class);
+		when(orderRepository.save(any(Order.class))).thenAnswer(call -> call.getArgument(0));
+		stockService = mock(StockService.class);
+		orderService = new OrderService(orderRepository, mock(ProductRepository.class), mock(PromoCodeService.class),
+				mock(PromoCodeRepository.class), mock(SalesAnalyticsService.class), mock(CoPurchaseIndex.class),
+				stockService, mock(OrderStatusTimer.class), mock(ShardLeaseManager.class), 5000);
+	}
+
+	private Order stored(String status) {
+		Order order = new Order();
+		order.setId(1L);
+		order.setStatus(status);
+		order.setOrderItems(new ArrayList<>());
+		when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+		return order;
+	}
+
+	@Test
+	void revivedOrderHandsItsStockBackWhenTheSaveFails() {
+		Order order = stored("CANCELLED");
+		when(orderRepository.save(order)).thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+		assertThrows(DataAccessResourceFailureException.class, () -> orderService.updateOrderStatus(1L, "PENDING"));
+		verify(stockService).reserve(order);
+		verify(stockService).release(order);
+	}
+
+	@Test
+	void deliveredOrderCannotBeCancelledThroughAStatusUpdate() {
+		stored("DELIVERED");
+
+		assertThrows(RuntimeException.class, () -> orderService.updateOrderStatus(1L, "CANCELLED"));
+		verify(orderRepository, never()).save(any());
+		verifyNoInteractions(stockService);
+	}
+
+	@Test
+	void onlyPendingOrdersPutTheirStockBack() {
+		stored("SHIPPED");
+		orderService.updateOrderStatus(1L, "CANCELLED");
+		stored("OUT_FOR_DELIVERY");
+		orderService.deleteOrder(1L);
+		verify(stockService, never()).release(any());
+
+		Order pending = stored("PENDING");
+		orderService.deleteOrder(1L);
+		verify(stockService).release(pending);
+	}
+}
@@ -0,0 +1,166 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.dto.ImportRowErrorDTO;
+import com.ecommerce.backend.dto.ProductImportResultDTO;
+import com.ecommerce.backend.entity.Product;
+import com.ecommerce.backend.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ProductImportServiceTests {
+
+	private static final String HEADER = "title,description,price,category,stock\n";
+
+	private final List<Product> stored = new ArrayList<>();
+	private final List<Product> savedByImport = new ArrayList<>();
+	private ProductImportService importService;
+
+	// the repository rejects any product titled "BAD" the way a failing INSERT would, failing its whole batch
+	@BeforeEach
+	void setUp() {
+		AtomicLong ids = new AtomicLong();
+		ProductRepository productRepository = mock(ProductRepository.class);
+		when(productRepository.save(any(Product.class))).thenAnswer(call -> {
+			Product product = call.getArgument(0);
+			if (product.getId() != null) {
+				throw new IllegalStateException("retried a product that already has id " + product.getId());
+			}
+			product.setId(ids.incrementAndGet());
+			if ("BAD".equals(product.getTitle())) {
+				throw new IllegalStateException("value too long for column title");
+			}
+			stored.add(product);
+			return product;
+		});
+		when(productRepository.saveAll(anyList())).thenAnswer(call -> {
+			List<Product> products = call.getArgument(0);
+			for (Product product : products) {
+				product.setId(ids.incrementAndGet());
+			}
+			if (products.stream().anyMatch(product -> "BAD".equals(product.getTitle()))) {
+				throw new IllegalStateException("value too long for column title");
+			}
+			stored.addAll(products);
+			return products;
+		});
+
+		ProductService productService = mock(ProductService.class);
+		when(productService.convertToEntity(any())).thenCallRealMethod();
+		doAnswer(call -> savedByImport.addAll(call.getArgument(0)))
+				.when(productService).onProductsImported(anyList());
+
+		// the builder configures Jackson like Spring's ObjectMapper (unknown properties such as "stock" are ignored)
+		importService = new ProductImportService(productRepository, productService,
+				Jackson2ObjectMapperBuilder.json().build(), Validation.buildDefaultValidatorFactory().getValidator(),
+				mock(EntityManager.class), mock(PlatformTransactionManager.class), 3);
+	}
+
+	private ProductImportResultDTO importCsv(String csv) {
+		return importService.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private ProductImportResultDTO importJson(String json) {
+		return importService.importJson(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private List<List<String>> readCsv(String csv) throws IOException {
+		BufferedReader reader = new BufferedReader(new StringReader(csv));
+		List<List<String>> records = new ArrayList<>();
+		List<String> record;
+		while ((record = ProductImportService.readCsvRecord(reader)) != null) {
+			records.add(record);
+		}
+		return records;
+	}
+
+	@Test
+	void readsQuotedCsvFields() throws IOException {
+		assertEquals(List.of(List.of("a,b", "say \"hi\"", "")), readCsv("\"a,b\",\"say \"\"hi\"\"\",\n"));
+		assertEquals(List.of(List.of("line one\nline two", "x")), readCsv("\"line one\nline two\",x"));
+		assertEquals(List.of(List.of("a", "b"), List.of("c", "d")), readCsv("a,b\r\nc,d\r\n"));
+		assertEquals(List.of(List.of("", "")), readCsv(","));
+		assertEquals(List.of(), readCsv(""));
+	}
+
+	@Test
+	void importsCsvRowsAndReportsBadOnes() {
+		ProductImportResultDTO result = importCsv(HEADER
+				+ "\"Phone, 128GB\",\"The \"\"best\"\" one\",499,Electronics,5\r\n"
+				+ "Shoe,\"Two\nlines\",80,Footwear,\r\n"
+				+ "Hat,too few fields\r\n"
+				+ "Bag,leather,not-a-price,Accessories,1\r\n");
+
+		assertEquals(4, result.getRowsRead());
+		assertEquals(2, result.getImported());
+		assertEquals(2, result.getFailed());
+		assertNull(result.getAbortedReason());
+		assertEquals(List.of(new ImportRowErrorDTO(3, "expected 5 fields but found 2"),
+				new ImportRowErrorDTO(4, "price: not a number: not-a-price")), result.getErrors());
+
+		assertEquals("Phone, 128GB", stored.get(0).getTitle());
+		assertEquals("The \"best\" one", stored.get(0).getDescription());
+		assertEquals(5, stored.get(0).getStock());
+		assertEquals("Two\nlines", stored.get(1).getDescription());
+		assertNull(stored.get(1).getStock());
+	}
+
+	@Test
+	void rejectsFractionalJsonStock() {
+		ProductImportResultDTO result = importJson("["
+				+ "{\"title\":\"A\",\"description\":\"d\",\"price\":1,\"category\":\"X\",\"stock\":1.5},"
+				+ "{\"title\":\"B\",\"description\":\"d\",\"price\":1,\"category\":\"X\",\"stock\":2.0},"
+				+ "{\"title\":\"C\",\"description\":\"d\",\"price\":1,\"category\":\"X\",\"stock\":3}]");
+
+		assertEquals(1, result.getImported());
+		assertEquals(List.of(new ImportRowErrorDTO(1, "stock: must be a whole number"),
+				new ImportRowErrorDTO(2, "stock: must be a whole number")), result.getErrors());
+		assertEquals(3, stored.get(0).getStock());
+	}
+
+	@Test
+	void keepsRowsBeforeTruncatedJson() {
+		ProductImportResultDTO result = importJson("["
+				+ "{\"title\":\"A\",\"description\":\"d\",\"price\":1,\"category\":\"X\"},"
+				+ "{\"title\":\"B\",\"description\":\"d\",\"pri");
+
+		assertEquals(1, result.getImported());
+		assertNotNull(result.getAbortedReason());
+		assertTrue(result.getAbortedReason().startsWith("invalid JSON"), result.getAbortedReason());
+		assertEquals(List.of("A"), savedByImport.stream().map(Product::getTitle).toList());
+	}
+
+	@Test
+	void failedBatchIsRetriedRowByRowWithFreshEntities() {
+		ProductImportResultDTO result = importCsv(HEADER
+				+ "A,d,1,X,1\n"
+				+ "BAD,d,1,X,1\n"
+				+ "C,d,1,X,1\n"
+				+ "D,d,1,X,1\n");
+
+		// batch size 3: the first batch fails on BAD, its other two rows go in one by one, D is a batch of its own
+		assertEquals(3, result.getImported());
+		assertEquals(1, result.getFailed());
+		assertEquals(List.of(new ImportRowErrorDTO(2, "could not be saved: value too long for column title")),
+				result.getErrors());
+		assertEquals(List.of("A", "C", "D"), stored.stream().map(Product::getTitle).toList());
+		assertEquals(List.of("A", "C", "D"), savedByImport.stream().map(Product::getTitle).toList());
+	}
+}
@@ -0,0 +1,133 @@
+package com.ecommerce.backend.service;
+
+import com.ecommerce.backend.entity.Order;
+import com.ecommerce.backend.entity.OrderItem;
+import com.ecommerce.backend.entity.Product;
+import com.ecommerce.backend.entity.PromoCode;
+import com.ecommerce.backend.repository.OrderRepository;
+import com.ecommerce.backend.repository.SalesRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SalesAnalyticsServiceTests {
+
+	private static final LocalDate DAY = LocalDate.of(2026, 1, 2);
+
+	private SalesRollupRepository salesRollupRepository;
+	private OrderRepository orderRepository;
+	private SalesAnalyticsService analytics;
+
+	@BeforeEach
+	void setUp() {
+		salesRollupRepository = mock(SalesRollupRepository.class);
+		when(salesRollupRepository.addToRollup(any(), anyString(), anyString(), anyDouble(), anyDouble(), anyLong(),
+				anyLong())).thenReturn(1);
+		orderRepository = mock(OrderRepository.class);
+		analytics = new SalesAnalyticsService(salesRollupRepository, orderRepository,
+				mock(PlatformTransactionManager.class));
+	}
+
+	private Order order(long id, String promoCode, double discount, Object... categoryQuantityTotal) {
+		Order order = new Order();
+		order.setId(id);
+		order.setOrderDate(DAY.atTime(10, 0));
+		order.setDiscountAmount(discount);
+		if (promoCode != null) {
+			PromoCode promo = new PromoCode();
+			promo.setCode(promoCode);
+			order.setPromoCode(promo);
+		}
+		List<OrderItem> items = new ArrayList<>();
+		for (int i = 0; i < categoryQuantityTotal.length; i += 3) {
+			Product product = new Product();
+			product.setCategory((String) categoryQuantityTotal[i]);
+			OrderItem item = new OrderItem();
+			item.setProduct(product);
+			item.setQuantity((Integer) categoryQuantityTotal[i + 1]);
+			item.setTotalPrice((Double) categoryQuantityTotal[i + 2]);
+			items.add(item);
+		}
+		order.setOrderItems(items);
+		return order;
+	}
+
+	@Test
+	void splitsAnOrderIntoCategoryAndTotalRows() {
+		// the 10 discount is spread over the lines by their share of the 100 items total
+		analytics.recordOrder(order(1, "SAVE10", 10.0,
+				"Electronics", 2, 60.0, "Electronics", 1, 20.0, "Footwear", 1, 20.0), 1);
+		analytics.flushRollups();
+
+		// an order counts once per category, however many lines fall into it
+		verify(salesRollupRepository).addToRollup(DAY, "Electronics", "SAVE10", 72.0, 8.0, 3L, 1L);
+		verify(salesRollupRepository).addToRollup(DAY, "Footwear", "SAVE10", 18.0, 2.0, 1L, 1L);
+		verify(salesRollupRepository).addToRollup(DAY, "", "SAVE10", 90.0, 10.0, 4L, 1L);
+		verifyNoMoreInteractions(salesRollupRepository);
+	}
+
+	@Test
+	void cancellationCancelsOutTheOrder() {
+		Order order = order(1, null, 0.0, "Footwear", 1, 20.0);
+		analytics.recordOrder(order, 1);
+		analytics.recordOrder(order, -1);
+		analytics.flushRollups();
+
+		verify(salesRollupRepository).addToRollup(DAY, "Footwear", "", 0.0, 0.0, 0L, 0L);
+		verify(salesRollupRepository).addToRollup(DAY, "", "", 0.0, 0.0, 0L, 0L);
+	}
+
+	@Test
+	void failedFlushPutsTheDeltasBack() {
+		when(salesRollupRepository.addToRollup(any(), anyString(), anyString(), anyDouble(), anyDouble(), anyLong(),
+				anyLong())).thenThrow(new DataIntegrityViolationException("duplicate key")).thenReturn(1);
+		analytics.recordOrder(order(1, null, 0.0, "Footwear", 1, 20.0), 1);
+		analytics.flushRollups();
+
+		analytics.recordOrder(order(2, null, 0.0, "Footwear", 2, 50.0), 1);
+		analytics.flushRollups();
+
+		// the retried deltas are merged with the new ones, nothing is applied twice
+		verify(salesRollupRepository).addToRollup(DAY, "Footwear", "", 70.0, 0.0, 3L, 2L);
+		verify(salesRollupRepository).addToRollup(DAY, "", "", 70.0, 0.0, 3L, 2L);
+
+		clearInvocations(salesRollupRepository);
+		analytics.flushRollups();
+		verifyNoInteractions(salesRollupRepository);
+	}
+
+	@Test
+	void rebuildKeepsDeltasOfOrdersItDidNotScan() {
+		List<Order> orders = List.of(order(1, null, 0.0, "X", 1, 10.0), order(2, null, 0.0, "X", 1, 20.0),
+				order(3, null, 0.0, "X", 1, 30.0), order(4, null, 0.0, "X", 1, 40.0));
+		// 2 is already buffered, so the scan covers it; 4 commits after the scan took max(id)
+		analytics.recordOrder(orders.get(1), 1);
+		analytics.recordOrder(orders.get(3), 1);
+		when(orderRepository.findMaxId()).thenReturn(3L);
+		when(orderRepository.findIdsAfter(eq(0L), any())).thenReturn(List.of(1L, 2L, 3L, 4L));
+		when(orderRepository.findIdsAfter(eq(4L), any())).thenReturn(List.of());
+		when(orderRepository.findAllById(List.of(1L, 2L, 3L, 4L))).thenReturn(orders);
+
+		analytics.rebuildRollups();
+		verify(salesRollupRepository).deleteAllInBatch();
+		verify(salesRollupRepository).addToRollup(DAY, "", "", 60.0, 0.0, 3L, 3L);
+
+		clearInvocations(salesRollupRepository);
+		analytics.flushRollups();
+		verify(salesRollupRepository).addToRollup(DAY, "", "", 40.0, 0.0, 1L, 1L);
+		verify(salesRollupRepository).addToRollup(DAY, "X", "", 40.0, 0.0, 1L, 1L);
+		verifyNoMoreInteractions(salesRollupRepository);
+	}
+}
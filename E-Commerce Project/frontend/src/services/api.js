@@ -4,6 +4,8 @@ const API_BASE_URL = 'http://localhost:8080/api';
 
 const api = axios.create({
   baseURL: API_BASE_URL,
+  // sends the backend's read-your-writes cookie, so an order reads back right after it is placed
+  withCredentials: true,
   headers: {
     'Content-Type': 'application/json',
   },